@@ -0,0 +1,180 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Simulates many independent bankroll trajectories under a {@link
+ * BettingStrategy}, drawing the true count and outcome of each round from a
+ * {@link RoundOutcomeDistribution}. Trajectories are processed in blocks, in
+ * parallel; the state of each block is held in primitive arrays allocated once
+ * per block, so no objects are allocated per bet. Bankrolls are tracked in
+ * half units, so that a 3:2 blackjack payout on an odd bet is exact. A
+ * trajectory is ruined when its bankroll falls below 1 unit (the smallest
+ * possible bet), after which it takes no further part in play.
+ * <p>Note that rounds are drawn independently, so the serial correlation of
+ * true counts within a shoe is not modeled.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class BankrollSimulator {
+
+  private static final int BLOCK_SIZE = 4096;
+
+  private final RoundOutcomeDistribution distribution;
+
+  /**
+   * Initializes this instance with the specified distribution of rounds.
+   *
+   * @param distribution  source of true counts and round outcomes.
+   */
+  public BankrollSimulator(RoundOutcomeDistribution distribution) {
+    this.distribution = distribution;
+  }
+
+  /**
+   * Simulates <code>trajectories</code> bankroll trajectories, each starting
+   * with <code>initialBankroll</code> units and lasting up to
+   * <code>rounds</code> rounds. The results are fully determined by
+   * <code>seed</code>, regardless of the degree of parallelism.
+   *
+   * @param strategy                betting strategy used by every trajectory.
+   * @param trajectories            number of trajectories.
+   * @param rounds                  maximum number of rounds per trajectory.
+   * @param initialBankroll         starting bankroll (in units) of each
+   *                                trajectory.
+   * @param seed                    seed for random number generation.
+   * @return                        summary of the simulated trajectories.
+   * @throws IllegalStateException  if no rounds have been recorded in the
+   *                                distribution.
+   */
+  public Report simulate(BettingStrategy strategy, int trajectories, int rounds,
+      int initialBankroll, long seed) {
+    int[] finalBankrolls = new int[trajectories];
+    int[] maxDrawdowns = new int[trajectories];
+    distribution.prepare();
+    int blocks = (trajectories + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    IntStream.range(0, blocks).parallel().forEach((block) -> {
+      int start = block * BLOCK_SIZE;
+      int size = Math.min(trajectories - start, BLOCK_SIZE);
+      simulateBlock(strategy, rounds, initialBankroll, new SplittableRandom(seed + block),
+          start, size, finalBankrolls, maxDrawdowns);
+    });
+    return new Report(finalBankrolls, maxDrawdowns);
+  }
+
+  private void simulateBlock(BettingStrategy strategy, int rounds, int initialBankroll,
+      SplittableRandom rng, int offset, int size, int[] finalBankrolls, int[] maxDrawdowns) {
+    // Bankrolls, peaks, and drawdowns are all in half units.
+    int[] bankrolls = new int[size];
+    int[] peaks = new int[size];
+    int[] drawdowns = new int[size];
+    int[] previousBets = new int[size];
+    int[] previousResults = new int[size];
+    Arrays.fill(bankrolls, 2 * initialBankroll);
+    Arrays.fill(peaks, 2 * initialBankroll);
+    for (int round = 0; round < rounds; round++) {
+      for (int i = 0; i < size; i++) {
+        int bankroll = bankrolls[i];
+        int units = bankroll / 2;
+        if (units > 0) {
+          int sample = distribution.sample(rng);
+          int bet = strategy.bet(units, previousBets[i], previousResults[i],
+              RoundOutcomeDistribution.trueCount(sample));
+          bet = Math.max(0, Math.min(units, bet));
+          int result = RoundOutcomeDistribution.result(sample);
+          bankroll += result * bet;
+          bankrolls[i] = bankroll;
+          previousBets[i] = bet;
+          previousResults[i] = result;
+          peaks[i] = Math.max(peaks[i], bankroll);
+          drawdowns[i] = Math.max(drawdowns[i], peaks[i] - bankroll);
+        }
+      }
+    }
+    System.arraycopy(bankrolls, 0, finalBankrolls, offset, size);
+    System.arraycopy(drawdowns, 0, maxDrawdowns, offset, size);
+  }
+
+  /**
+   * Summary of a set of simulated bankroll trajectories.
+   */
+  public static class Report {
+
+    private final int[] finalBankrolls;
+    private final int[] maxDrawdowns;
+    private final double riskOfRuin;
+
+    private Report(int[] finalBankrolls, int[] maxDrawdowns) {
+      int ruined = 0;
+      for (int bankroll : finalBankrolls) {
+        if (bankroll < 2) {
+          ruined++;
+        }
+      }
+      riskOfRuin = (finalBankrolls.length > 0) ? (double) ruined / finalBankrolls.length : 0;
+      Arrays.parallelSort(finalBankrolls);
+      Arrays.parallelSort(maxDrawdowns);
+      this.finalBankrolls = finalBankrolls;
+      this.maxDrawdowns = maxDrawdowns;
+    }
+
+    /**
+     * Returns the fraction of trajectories that ended with a bankroll of less
+     * than 1 unit.
+     *
+     * @return  estimated risk of ruin.
+     */
+    public double getRiskOfRuin() {
+      return riskOfRuin;
+    }
+
+    /**
+     * Returns the median final bankroll.
+     *
+     * @return  median final bankroll, in units.
+     */
+    public double getMedianFinalBankroll() {
+      return getFinalBankrollPercentile(50);
+    }
+
+    /**
+     * Returns the specified percentile of the final bankrolls.
+     *
+     * @param percentile  percentile, in the range [0, 100].
+     * @return            final bankroll at the specified percentile, in units.
+     */
+    public double getFinalBankrollPercentile(double percentile) {
+      return percentile(finalBankrolls, percentile);
+    }
+
+    /**
+     * Returns the specified percentile of the maximum drawdowns &ndash; that
+     * is, the largest decline of each trajectory's bankroll from its previous
+     * peak.
+     *
+     * @param percentile  percentile, in the range [0, 100].
+     * @return            maximum drawdown at the specified percentile, in
+     *                    units.
+     */
+    public double getMaxDrawdownPercentile(double percentile) {
+      return percentile(maxDrawdowns, percentile);
+    }
+
+    private static double percentile(int[] sorted, double percentile) {
+      int index = (int) Math.round(percentile / 100 * (sorted.length - 1));
+      return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 2.0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "risk of ruin=%.4f, median final bankroll=%.1f, max drawdown (50/90/99%%)=%.1f/%.1f/%.1f",
+          riskOfRuin, getMedianFinalBankroll(), getMaxDrawdownPercentile(50),
+          getMaxDrawdownPercentile(90), getMaxDrawdownPercentile(99));
+    }
+
+  }
+
+}
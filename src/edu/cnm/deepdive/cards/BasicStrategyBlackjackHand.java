@@ -0,0 +1,113 @@
+package edu.cnm.deepdive.cards;
+
+import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+
+/**
+ * Concrete subclass of {@link BlackjackHand} implementing the hit/stand portion
+ * of the standard "basic strategy" for a player, based on the hand's total and
+ * the dealer's up-card. Doubling down and splitting are not supported. This
+ * class requires no user interaction, so it can be used in simulations.
+ * Optionally, a {@link DeviationTable} of count-based index numbers can be
+ * consulted in place of the fixed basic strategy table.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class BasicStrategyBlackjackHand extends BlackjackHand {
+
+  private final int upCardValue;
+  private final DeviationTable deviations;
+  private final int trueCount;
+
+  /**
+   * Initializes this instance with the specified {@link Deck} of cards, and the
+   * dealer's up-card (used in hit/stand decisions).
+   *
+   * @param deck                          source of cards for this instance.
+   * @param dealerUpCard                  dealer's face-up card.
+   * @throws InsufficientCardsException   if <code>deck</code> doesn't have at
+   *                                      least 2 undealt cards available.
+   */
+  public BasicStrategyBlackjackHand(Deck deck, Card dealerUpCard)
+      throws InsufficientCardsException {
+    this(deck, dealerUpCard, null, 0);
+  }
+
+  /**
+   * Initializes this instance with the specified {@link Deck} of cards, the
+   * dealer's up-card, and a table of count-based deviations from basic
+   * strategy, along with the true count used to consult it.
+   *
+   * @param deck                          source of cards for this instance.
+   * @param dealerUpCard                  dealer's face-up card.
+   * @param deviations                    index numbers for hit/stand
+   *                                      decisions; if <code>null</code>,
+   *                                      basic strategy is used.
+   * @param trueCount                     true count at the start of the round.
+   * @throws InsufficientCardsException   if <code>deck</code> doesn't have at
+   *                                      least 2 undealt cards available.
+   */
+  public BasicStrategyBlackjackHand(Deck deck, Card dealerUpCard, DeviationTable deviations,
+      int trueCount) throws InsufficientCardsException {
+    super(deck);
+    upCardValue = upCardValue(dealerUpCard.getRank());
+    this.deviations = deviations;
+    this.trueCount = trueCount;
+  }
+
+  /**
+   * Draws cards ("hits") while the basic strategy table (or the deviation
+   * table, if one was specified) calls for a hit, given the current total
+   * (hard or soft) of the hand and the dealer's up-card.
+   *
+   * @throws InsufficientCardsException   in the event that the {@link Deck}
+   *                                      specified in the constructor invocation
+   *                                      runs out of cards during play.
+   */
+  @Override
+  public void play() throws InsufficientCardsException {
+    while (getTotal() < 21 && (
+        (deviations != null)
+            ? deviations.shouldHit(getTotal(), isSoft(), upCardValue, trueCount)
+            : shouldHit(getTotal(), isSoft(), upCardValue))) {
+      hit();
+    }
+  }
+
+  /**
+   * Returns the value of the specified dealer up-card rank for strategy lookup
+   * purposes, where an ace counts as 11 and face cards count as 10.
+   *
+   * @param rank  rank of the dealer's up-card.
+   * @return      up-card value, in the range 2&ndash;11.
+   */
+  static int upCardValue(Rank rank) {
+    return (rank == Rank.ACE) ? 11 : Math.min(rank.ordinal() + 1, 10);
+  }
+
+  /**
+   * Returns the basic strategy hit/stand decision for the specified total,
+   * softness, and dealer up-card value.
+   *
+   * @param total         point total of the player's hand.
+   * @param soft          flag indicating whether the total includes a soft ace.
+   * @param upCardValue   dealer up-card value, as returned by {@link
+   *                      #upCardValue(Rank)}.
+   * @return              <code>true</code> if the player should hit.
+   */
+  static boolean shouldHit(int total, boolean soft, int upCardValue) {
+    boolean hit;
+    if (soft) {
+      hit = total <= 17 || (total == 18 && upCardValue >= 9);
+    } else if (total <= 11) {
+      hit = true;
+    } else if (total == 12) {
+      hit = upCardValue < 4 || upCardValue > 6;
+    } else if (total <= 16) {
+      hit = upCardValue > 6;
+    } else {
+      hit = false;
+    }
+    return hit;
+  }
+
+}
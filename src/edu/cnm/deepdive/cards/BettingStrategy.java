@@ -0,0 +1,160 @@
+package edu.cnm.deepdive.cards;
+
+/**
+ * Strategy for sizing a player's bet at the start of each round. Strategies
+ * receive and return only primitive values, and implementations keep no
+ * per-player state; thus, a single instance can be used for any number of
+ * bankroll trajectories (see {@link BankrollSimulator}) without allocating
+ * anything per bet. All amounts are in whole betting units.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public interface BettingStrategy {
+
+  /**
+   * Returns the bet for the next round. The value returned may exceed the
+   * bankroll; in that case, the caller limits the bet to the bankroll.
+   *
+   * @param bankroll        current bankroll.
+   * @param previousBet     bet placed in the previous round (0 if none).
+   * @param previousResult  net result of the previous round, in half units of
+   *                        the bet, as returned by {@link
+   *                        BlackjackSimulation#playRound()} (0 if none).
+   * @param trueCount       true count at the start of the next round.
+   * @return                bet for the next round.
+   */
+  int bet(int bankroll, int previousBet, int previousResult, int trueCount);
+
+  /**
+   * Strategy that always bets the same amount.
+   */
+  class Flat implements BettingStrategy {
+
+    private final int units;
+
+    /**
+     * Initializes this instance with the specified bet.
+     *
+     * @param units   amount bet on every round.
+     */
+    public Flat(int units) {
+      this.units = units;
+    }
+
+    @Override
+    public int bet(int bankroll, int previousBet, int previousResult, int trueCount) {
+      return units;
+    }
+
+  }
+
+  /**
+   * Strategy that doubles the bet after every loss (up to a table maximum), and
+   * returns to the base bet after a win.
+   */
+  class Martingale implements BettingStrategy {
+
+    private final int baseUnits;
+    private final int maxUnits;
+
+    /**
+     * Initializes this instance with the specified base and maximum bets.
+     *
+     * @param baseUnits   bet after a win or push, and at the start of play.
+     * @param maxUnits    table maximum bet.
+     */
+    public Martingale(int baseUnits, int maxUnits) {
+      this.baseUnits = baseUnits;
+      this.maxUnits = maxUnits;
+    }
+
+    @Override
+    public int bet(int bankroll, int previousBet, int previousResult, int trueCount) {
+      return (previousResult < 0)
+          ? Math.max(baseUnits, Math.min(2 * previousBet, maxUnits))
+          : baseUnits;
+    }
+
+  }
+
+  /**
+   * Strategy that bets a fraction of the Kelly criterion bet &ndash; that is,
+   * the bankroll multiplied by the player's edge at the current true count and
+   * divided by the variance of a round &ndash; or the minimum bet, if the
+   * player has no edge.
+   */
+  class Kelly implements BettingStrategy {
+
+    /** Approximate variance of a Blackjack round, per unit bet. */
+    public static final double VARIANCE = 1.3;
+
+    private final double fraction;
+    private final double[] edges;
+    private final int minUnits;
+    private final int maxUnits;
+
+    /**
+     * Initializes this instance with the specified Kelly fraction, table limits,
+     * and player edge at each true count, as estimated from a {@link
+     * RoundOutcomeDistribution}.
+     *
+     * @param fraction      fraction of the full Kelly bet (e.g. 0.5 for
+     *                      "half-Kelly").
+     * @param minUnits      table minimum bet.
+     * @param maxUnits      table maximum bet.
+     * @param distribution  source of the player's edge at each true count.
+     */
+    public Kelly(double fraction, int minUnits, int maxUnits,
+        RoundOutcomeDistribution distribution) {
+      this.fraction = fraction;
+      this.minUnits = minUnits;
+      this.maxUnits = maxUnits;
+      edges = new double[RoundOutcomeDistribution.MAX_TRUE_COUNT
+          - RoundOutcomeDistribution.MIN_TRUE_COUNT + 1];
+      for (int i = 0; i < edges.length; i++) {
+        edges[i] = distribution.getExpectation(i + RoundOutcomeDistribution.MIN_TRUE_COUNT);
+      }
+    }
+
+    @Override
+    public int bet(int bankroll, int previousBet, int previousResult, int trueCount) {
+      int index = Math.max(RoundOutcomeDistribution.MIN_TRUE_COUNT,
+          Math.min(RoundOutcomeDistribution.MAX_TRUE_COUNT, trueCount))
+          - RoundOutcomeDistribution.MIN_TRUE_COUNT;
+      int bet = (int) (fraction * bankroll * edges[index] / VARIANCE);
+      return Math.max(minUnits, Math.min(maxUnits, bet));
+    }
+
+  }
+
+  /**
+   * Strategy that bets according to a fixed "spread" of bets indexed by true
+   * count. True counts below the first entry of the spread use the first
+   * entry; true counts above the last entry use the last entry.
+   */
+  class CountSpread implements BettingStrategy {
+
+    private final int minTrueCount;
+    private final int[] spread;
+
+    /**
+     * Initializes this instance with the specified bet spread.
+     *
+     * @param minTrueCount  true count corresponding to the first entry in
+     *                      <code>spread</code>.
+     * @param spread        bets for successive true counts, starting at
+     *                      <code>minTrueCount</code>.
+     */
+    public CountSpread(int minTrueCount, int... spread) {
+      this.minTrueCount = minTrueCount;
+      this.spread = spread.clone();
+    }
+
+    @Override
+    public int bet(int bankroll, int previousBet, int previousResult, int trueCount) {
+      return spread[Math.max(0, Math.min(spread.length - 1, trueCount - minTrueCount))];
+    }
+
+  }
+
+}
@@ -53,14 +53,7 @@ public class BlackjackDealerHand extends BlackjackHand {
    */
   @Override
   public void play() throws Deck.InsufficientCardsException {
-    while (
-        getTotal() < 17
-        || (
-            getTotal() == 17
-            && isSoft()
-            && hitOnSoft17
-        )
-    ) {
+    while (HandStateTable.dealerHits(getState(), hitOnSoft17)) {
       hit();
     }
   }
@@ -1,8 +1,9 @@
 package edu.cnm.deepdive.cards;
 
 import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+import edu.cnm.deepdive.cards.GameEvent.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -11,26 +12,16 @@ import java.util.ResourceBundle;
  * from a {@link Deck}, evaluating the cards in the hand, and comparing one hand
  * to another. There's also an abstract method ({@link #play()}) intended for
  * concrete subclasses to implement strategy and game play interaction.
+ * <p>For lookahead and what-if analysis, the contents of a hand can be
+ * recorded with {@link #snapshot()} and returned to with {@link
+ * #restore(int)}, typically along with the corresponding {@link
+ * Deck#snapshot()} and {@link Deck#restore(long)}; alternatively, a copy of a
+ * hand, drawing from a {@link Deck#fork()} of its deck, can be made with
+ * {@link #fork(Deck)}.</p>
  *
  * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
  */
-public abstract class BlackjackHand implements Comparable<BlackjackHand> {
-
-  private static final int[] VALUES = {
-      1,
-      2,
-      3,
-      4,
-      5,
-      6,
-      7,
-      8,
-      9,
-      10,
-      10,
-      10,
-      10,
-  };
+public abstract class BlackjackHand implements Comparable<BlackjackHand>, Cloneable {
 
   public static final String RESOURCE_BUNDLE = "resources/blackjack_hand";
 
@@ -40,19 +31,9 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
   public static final String HARD_POINTS_PATTERN_KEY = "hard_points_pattern";
   public static final String TO_STRING_PATTERN_KEY = "to_string_pattern";
 
-  public static ResourceBundle bundle;
   private List<Card> hand;
   private Deck deck;
-  private boolean soft;
-  private boolean blackjack;
-  private boolean busted;
-  private int value;
-  private int total;
-
-  // static initializer block, get used to it 😉
-  static {
-    bundle = ResourceBundle.getBundle(RESOURCE_BUNDLE);
-  }
+  private int state;
 
   /**
    * Initializes this instance with the specified {@link Deck}. 2 cards are
@@ -66,50 +47,99 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
    */
   protected BlackjackHand(Deck deck) throws InsufficientCardsException {
     Card[] cards = deck.deal(2);
-    hand = new LinkedList<>();
+    hand = new ArrayList<>();
     hand.addAll(Arrays.asList(cards));
     this.deck = deck;
-    update();
-  }
-
-  private void update() {
-    boolean aceInHand = false;
-    total = 0;
-    soft = false;
-    blackjack = false;
-    busted = false;
-    for (Card card : hand) {
-      if (card.getRank() == Rank.ACE) {
-        aceInHand = true;
-      }
-      total += VALUES[card.getRank().ordinal()];
-    }
-    if (total > 21) {
-      busted = true;
-      value = 0;
-    } else if (total <= 11 && aceInHand) {
-      total += 10;
-      soft = true;
-      if (hand.size() == 2 && total == 21) {
-        blackjack = true;
-      }
-      value = total;
-    } else {
-      value = total;
+    state = HandStateTable.INITIAL;
+    for (Card card : cards) {
+      state = HandStateTable.next(state, card.getRank());
     }
   }
 
   /**
    * Draws a card from the {@link Deck} provided to the {@link
    * #BlackjackHand(Deck)} constructor and adds it the cards contained in this
-   * instance.
+   * instance. If the deck has a {@link GameEventPublisher} attached, the hit
+   * is published.
    *
    * @throws InsufficientCardsException if the deck doesn't have at least 1
    *                                    undealt card available.
    */
   protected final void hit() throws InsufficientCardsException {
-    hand.add(deck.deal());
-    update();
+    Card card = deck.deal();
+    hand.add(card);
+    state = HandStateTable.next(state, card.getRank());
+    publish(Type.HIT, card, 0);
+  }
+
+  /**
+   * Publishes an event to the {@link GameEventPublisher} attached to the
+   * {@link Deck} from which this hand draws cards, if any.
+   *
+   * @param type    event type.
+   * @param card    card drawn, or <code>null</code>.
+   * @param amount  amount of a bet or payout, or 0.
+   */
+  protected void publish(Type type, Card card, int amount) {
+    GameEventPublisher events = deck.getEventPublisher();
+    if (events != null) {
+      events.publish(type, card, amount);
+    }
+  }
+
+  /**
+   * Records the current contents of this hand, so that they can be returned to
+   * later with {@link #restore(int)}. This is a constant-time operation that
+   * allocates nothing.
+   *
+   * @return    token identifying the current contents (currently, the number
+   *            of cards in the hand).
+   */
+  public int snapshot() {
+    return hand.size();
+  }
+
+  /**
+   * Returns this hand to contents previously recorded with {@link
+   * #snapshot()}, by discarding the cards drawn since then. Note that the
+   * discarded cards are not returned to the {@link Deck}; that is done with
+   * {@link Deck#restore(long)}.
+   *
+   * @param snapshot                    token returned by {@link #snapshot()}.
+   * @throws IllegalArgumentException   if <code>snapshot</code> does not
+   *                                    correspond to the current or an earlier
+   *                                    position of this hand.
+   */
+  public void restore(int snapshot) {
+    if (snapshot < 0 || snapshot > hand.size()) {
+      throw new IllegalArgumentException();
+    }
+    hand.subList(snapshot, hand.size()).clear();
+    state = HandStateTable.INITIAL;
+    for (Card card : hand) {
+      state = HandStateTable.next(state, card.getRank());
+    }
+  }
+
+  /**
+   * Returns a copy of this hand, including any state held by the concrete
+   * subclass, that draws subsequent cards from the specified {@link Deck}
+   * &ndash; usually a {@link Deck#fork()} of the deck used by this instance.
+   * Playing the copy does not affect this instance, or vice versa.
+   *
+   * @param deck  source from which the copy draws cards.
+   * @return      copy of this hand.
+   */
+  public BlackjackHand fork(Deck deck) {
+    try {
+      BlackjackHand copy = (BlackjackHand) super.clone();
+      copy.hand = new ArrayList<>(hand);
+      copy.deck = deck;
+      return copy;
+    } catch (CloneNotSupportedException e) {
+      // Can't happen, since this class implements Cloneable.
+      throw new RuntimeException(e);
+    }
   }
 
   /**
@@ -127,11 +157,12 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
    */
   @Override
   public int compareTo(BlackjackHand other) {
-    int comparison = Integer.compare(value, other.value);
+    int comparison = Integer.compare(getValue(), other.getValue());
     if (comparison == 0) {
-      if (blackjack && !other.blackjack) {
+      boolean blackjack = isBlackjack();
+      if (blackjack && !other.isBlackjack()) {
         comparison = 1;
-      } else if (other.blackjack && !blackjack) {
+      } else if (other.isBlackjack() && !blackjack) {
         comparison = -1;
       }
     }
@@ -146,7 +177,7 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
    *            value.
    */
   protected boolean isSoft() {
-    return soft;
+    return HandStateTable.isSoft(state);
   }
 
   /**
@@ -158,7 +189,7 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
    * @return    flag indicating that this instance constitutes a Blackjack.
    */
   public boolean isBlackjack() {
-    return blackjack;
+    return HandStateTable.isBlackjack(state);
   }
 
   /**
@@ -171,7 +202,7 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
    *            total exceeding 21.
    */
   public boolean isBusted() {
-    return busted;
+    return HandStateTable.isBusted(state);
   }
 
   /**
@@ -180,7 +211,7 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
    * @return    value of the hand.
    */
   public int getValue() {
-    return value;
+    return HandStateTable.getValue(state);
   }
 
   /**
@@ -190,7 +221,17 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
    * @return    point total of the cards in the hand.
    */
   public int getTotal() {
-    return total;
+    return HandStateTable.getTotal(state);
+  }
+
+  /**
+   * Returns the {@link HandStateTable} state of this instance, which
+   * determines its total, value, and soft/blackjack/busted flags.
+   *
+   * @return    hand state.
+   */
+  protected int getState() {
+    return state;
   }
 
   /**
@@ -221,15 +262,19 @@ public abstract class BlackjackHand implements Comparable<BlackjackHand> {
   public String toString() {
     String status;
     if (isBusted()) {
-      status = String.format(bundle.getString(BUSTED_PATTERN_KEY), total);
+      status = String.format(bundle().getString(BUSTED_PATTERN_KEY), getTotal());
     } else if (isBlackjack()) {
-      status = bundle.getString(BLACKJACK_PATTERN_KEY);
+      status = bundle().getString(BLACKJACK_PATTERN_KEY);
     } else if (isSoft()) {
-      status = String.format(bundle.getString(POINTS_PATTERN_KEY), total - 10, total);
+      status = String.format(bundle().getString(POINTS_PATTERN_KEY), getTotal() - 10, getTotal());
     } else {
-      status = String.format(bundle.getString(HARD_POINTS_PATTERN_KEY), total);
+      status = String.format(bundle().getString(HARD_POINTS_PATTERN_KEY), getTotal());
     }
-    return String.format(bundle.getString(TO_STRING_PATTERN_KEY), Arrays.toString(getHand()), status);
+    return String.format(bundle().getString(TO_STRING_PATTERN_KEY), Arrays.toString(getHand()), status);
+  }
+
+  private static ResourceBundle bundle() {
+    return Bundles.get(RESOURCE_BUNDLE);
   }
 
 }
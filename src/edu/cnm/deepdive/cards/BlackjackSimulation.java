@@ -0,0 +1,370 @@
+package edu.cnm.deepdive.cards;
+
+import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless simulation of Blackjack rounds between a {@link
+ * BasicStrategyBlackjackHand} player and a {@link BlackjackDealerHand}, dealt
+ * from a single {@link Deck} that is reshuffled when the number of undealt
+ * cards falls below a threshold. Simulations are fully determined by their
+ * seed, and can be checkpointed periodically to a small file and resumed from
+ * it, producing exactly the same results as an uninterrupted run.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class BlackjackSimulation {
+
+  /** Default minimum number of undealt cards required to start a round. */
+  public static final int DEFAULT_RESHUFFLE_THRESHOLD = 15;
+  /** Default interval (in milliseconds) between checkpoints. */
+  public static final long DEFAULT_CHECKPOINT_INTERVAL = 5000;
+
+  private static final int CHECKPOINT_MAGIC = 0x424a4350;
+  private static final byte CHECKPOINT_VERSION = 1;
+  private static final int CHECKPOINT_CAPACITY =
+      Integer.BYTES + 1 + Long.BYTES + 1 + Integer.BYTES
+          + 2 * (Integer.BYTES + Card.NUM_CODES) + SimulationTally.BYTES;
+
+  private final CheckpointableRandom rng;
+  private final Deck deck;
+  private final boolean hitOnSoft17;
+  private final int reshuffleThreshold;
+  private final SimulationTally tally;
+  private int runningCount;
+  private OffHeapBuffer outcomes;
+  private OffHeapBuffer shoes;
+  private RoundOutcomeStore rounds;
+  private int ruleSet;
+
+  /**
+   * Initializes this instance with the specified seed, using the default
+   * reshuffle threshold, with the dealer hitting on soft 17.
+   *
+   * @param seed  seed for the random number generator used to shuffle.
+   */
+  public BlackjackSimulation(long seed) {
+    this(seed, true, DEFAULT_RESHUFFLE_THRESHOLD);
+  }
+
+  /**
+   * Initializes this instance with the specified seed, dealer rule, and
+   * reshuffle threshold.
+   *
+   * @param seed                  seed for the random number generator used to
+   *                              shuffle.
+   * @param hitOnSoft17           flag indicating whether the dealer hits on a
+   *                              soft 17.
+   * @param reshuffleThreshold    minimum number of undealt cards required to
+   *                              start a round without reshuffling.
+   */
+  public BlackjackSimulation(long seed, boolean hitOnSoft17, int reshuffleThreshold) {
+    this(new CheckpointableRandom(seed), new Deck(), hitOnSoft17, reshuffleThreshold,
+        new SimulationTally());
+    deck.shuffle(rng);
+  }
+
+  private BlackjackSimulation(CheckpointableRandom rng, Deck deck, boolean hitOnSoft17,
+      int reshuffleThreshold, SimulationTally tally) {
+    this.rng = rng;
+    this.deck = deck;
+    this.hitOnSoft17 = hitOnSoft17;
+    this.reshuffleThreshold = reshuffleThreshold;
+    this.tally = tally;
+    runningCount = count(deck.getDealt());
+  }
+
+  /**
+   * Plays a single round and records the outcome. If, at the end of the round,
+   * the number of undealt cards is below the reshuffle threshold, all of the
+   * cards are gathered and shuffled for the next round.
+   *
+   * @return  net result of the round for the player, in half units of the bet
+   *          (i.e. -2 for a loss, 0 for a push, 2 for a win, and 3 for a win
+   *          with a blackjack).
+   */
+  public int playRound() {
+    try {
+      int trueCount = getTrueCount();
+      BlackjackHand dealer = new BlackjackDealerHand(deck, hitOnSoft17);
+      Card upCard = dealer.getHand()[1];
+      BlackjackHand player = new BasicStrategyBlackjackHand(deck, upCard);
+      int playerTotal = player.getTotal();
+      if (!player.isBlackjack() && !dealer.isBlackjack()) {
+        player.play();
+        if (!player.isBusted()) {
+          dealer.play();
+        }
+      }
+      int comparison = player.compareTo(dealer);
+      int result = (comparison > 0) ? (player.isBlackjack() ? 3 : 2) : ((comparison < 0) ? -2 : 0);
+      tally.record(comparison, player.isBlackjack());
+      if (outcomes != null) {
+        outcomes.append((byte) result);
+      }
+      if (rounds != null) {
+        rounds.append(BasicStrategyBlackjackHand.upCardValue(upCard.getRank()), playerTotal,
+            trueCount, ruleSet, result);
+      }
+      if (deck.getUndealtCount() < reshuffleThreshold) {
+        deck.gather();
+        deck.shuffle(rng);
+        runningCount = 0;
+        if (shoes != null) {
+          recordShoe();
+        }
+      } else {
+        runningCount += count(player.getHand()) + count(dealer.getHand());
+      }
+      return result;
+    } catch (InsufficientCardsException e) {
+      /*
+      With a sensible reshuffle threshold, this exception should never occur. If
+      it does, wrap it in and throw a RuntimeException.
+      */
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Plays rounds until the total number recorded (including any rounds played
+   * before a checkpoint was restored) reaches <code>totalRounds</code>. If
+   * <code>checkpoint</code> is non-null, the state of the simulation is written
+   * to that file every <code>checkpointInterval</code> milliseconds, and once
+   * more on completion.
+   *
+   * @param totalRounds           number of rounds to be recorded in total.
+   * @param checkpoint            checkpoint file (may be <code>null</code>).
+   * @param checkpointInterval    minimum time (in milliseconds) between
+   *                              checkpoints.
+   * @throws IOException          if a checkpoint can't be written.
+   */
+  public void run(long totalRounds, Path checkpoint, long checkpointInterval)
+      throws IOException {
+    long intervalNanos = TimeUnit.MILLISECONDS.toNanos(checkpointInterval);
+    long nextCheckpoint = System.nanoTime() + intervalNanos;
+    while (tally.getRounds() < totalRounds) {
+      playRound();
+      if (checkpoint != null && System.nanoTime() - nextCheckpoint >= 0) {
+        checkpoint(checkpoint);
+        nextCheckpoint = System.nanoTime() + intervalNanos;
+      }
+    }
+    if (checkpoint != null) {
+      checkpoint(checkpoint);
+    }
+  }
+
+  /**
+   * Writes the complete state of this simulation (random number generator,
+   * deck order and position, rules, and tally) to <code>file</code>. The state
+   * is written to a temporary file in the same directory, which then atomically
+   * replaces <code>file</code>; thus, an interruption never leaves a partially
+   * written checkpoint in place.
+   *
+   * @param file          checkpoint file.
+   * @throws IOException  if the checkpoint can't be written.
+   */
+  public void checkpoint(Path file) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(CHECKPOINT_CAPACITY);
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeInt(CHECKPOINT_MAGIC);
+    output.writeByte(CHECKPOINT_VERSION);
+    output.writeLong(rng.getState());
+    output.writeBoolean(hitOnSoft17);
+    output.writeInt(reshuffleThreshold);
+    writeCards(output, deck.getUndealt());
+    writeCards(output, deck.getDealt());
+    tally.write(output);
+    output.flush();
+    ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+    Path directory = file.toAbsolutePath().getParent();
+    Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(false);
+      }
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Creates a simulation from a checkpoint file written by {@link
+   * #checkpoint(Path)}. The simulation returned continues exactly where the
+   * checkpointed simulation left off.
+   *
+   * @param file          checkpoint file.
+   * @return              restored simulation.
+   * @throws IOException  if the checkpoint can't be read, or is invalid.
+   */
+  public static BlackjackSimulation resume(Path file) throws IOException {
+    try (DataInputStream input =
+        new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+      if (input.readInt() != CHECKPOINT_MAGIC || input.readByte() != CHECKPOINT_VERSION) {
+        throw new IOException("Not a simulation checkpoint: " + file);
+      }
+      CheckpointableRandom rng = new CheckpointableRandom(0);
+      rng.setState(input.readLong());
+      boolean hitOnSoft17 = input.readBoolean();
+      int reshuffleThreshold = input.readInt();
+      Deck deck = new Deck(readCards(input), readCards(input));
+      SimulationTally tally = SimulationTally.read(input);
+      return new BlackjackSimulation(rng, deck, hitOnSoft17, reshuffleThreshold, tally);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Corrupt simulation checkpoint: " + file, e);
+    }
+  }
+
+  /**
+   * Directs this simulation to append the result of each subsequent round (as
+   * returned by {@link #playRound()}) to the specified buffer, typically held
+   * off-heap. Pass <code>null</code> to stop recording outcomes. The caller
+   * remains responsible for closing the buffer.
+   *
+   * @param outcomes  destination of round outcomes (may be <code>null</code>).
+   */
+  public void recordOutcomes(OffHeapBuffer outcomes) {
+    this.outcomes = outcomes;
+  }
+
+  /**
+   * Directs this simulation to append each subsequent round to the specified
+   * columnar store, with the dealer's up-card value, the total of the player's
+   * first 2 cards, the true count at the start of the round, the specified
+   * rule set identifier, and the result. Pass <code>null</code> to stop
+   * recording rounds. The caller remains responsible for closing the store.
+   *
+   * @param rounds    destination of rounds (may be <code>null</code>).
+   * @param ruleSet   identifier of the rules of this simulation, recorded with
+   *                  each round.
+   */
+  public void recordRounds(RoundOutcomeStore rounds, int ruleSet) {
+    this.rounds = rounds;
+    this.ruleSet = ruleSet;
+  }
+
+  /**
+   * Directs this simulation to append the order of the cards in each shoe to
+   * the specified buffer, typically held off-heap, as card codes (see {@link
+   * Card#getCode()}) in the order they will be dealt. The cards remaining in
+   * the current shoe are appended immediately; the complete order of each
+   * subsequent shoe is appended when it is shuffled. Pass <code>null</code> to
+   * stop recording shoes. The caller remains responsible for closing the
+   * buffer.
+   *
+   * @param shoes   destination of shoe orders (may be <code>null</code>).
+   */
+  public void recordShoes(OffHeapBuffer shoes) {
+    this.shoes = shoes;
+    if (shoes != null) {
+      recordShoe();
+    }
+  }
+
+  private void recordShoe() {
+    Card[] undealt = deck.getUndealt();
+    for (int i = undealt.length - 1; i >= 0; i--) {
+      shoes.append((byte) undealt[i].getCode());
+    }
+  }
+
+  /**
+   * Returns the Hi-Lo true count of the undealt cards: the running count of
+   * the cards dealt since the last shuffle (+1 for each 2&ndash;6, -1 for each
+   * 10, face card, or ace), divided by the number of decks remaining, rounded
+   * down.
+   *
+   * @return  true count at the start of the next round.
+   */
+  public int getTrueCount() {
+    return Math.floorDiv(runningCount * Card.NUM_CODES, deck.getUndealtCount());
+  }
+
+  /**
+   * Returns the Hi-Lo counting tag of the specified rank.
+   *
+   * @param rank  card rank.
+   * @return      +1 for ranks 2&ndash;6, -1 for 10, face cards, and ace, and 0
+   *              otherwise.
+   */
+  static int hiLoTag(Rank rank) {
+    int value = rank.ordinal() + 1;
+    return (value >= 2 && value <= 6) ? 1 : ((value >= 7 && value <= 9) ? 0 : -1);
+  }
+
+  private static int count(Card[] cards) {
+    int count = 0;
+    for (Card card : cards) {
+      count += hiLoTag(card.getRank());
+    }
+    return count;
+  }
+
+  /**
+   * Returns the tally of rounds played so far. The object returned is updated
+   * as additional rounds are played.
+   *
+   * @return  outcomes of rounds played.
+   */
+  public SimulationTally getTally() {
+    return tally;
+  }
+
+  private static void writeCards(DataOutput output, Card[] cards) throws IOException {
+    output.writeInt(cards.length);
+    for (Card card : cards) {
+      output.writeByte(card.getCode());
+    }
+  }
+
+  private static Card[] readCards(DataInput input) throws IOException {
+    Card[] cards = new Card[input.readInt()];
+    for (int i = 0; i < cards.length; i++) {
+      cards[i] = Card.fromCode(input.readByte());
+    }
+    return cards;
+  }
+
+  /**
+   * Runs a simulation from the command line. The arguments are the total number
+   * of rounds, the path of the checkpoint file, and (optionally) a seed. If the
+   * checkpoint file exists, the simulation resumes from it (and the seed is
+   * ignored); otherwise, a new simulation is started with the specified seed
+   * (or 0, if none is specified).
+   *
+   * @param args          command-line arguments.
+   * @throws IOException  if a checkpoint can't be read or written.
+   */
+  public static void main(String... args) throws IOException {
+    long totalRounds = Long.parseLong(args[0]);
+    Path checkpoint = Paths.get(args[1]);
+    BlackjackSimulation simulation;
+    if (Files.exists(checkpoint)) {
+      simulation = resume(checkpoint);
+    } else {
+      simulation = new BlackjackSimulation((args.length > 2) ? Long.parseLong(args[2]) : 0);
+    }
+    simulation.run(totalRounds, checkpoint, DEFAULT_CHECKPOINT_INTERVAL);
+    System.out.println(simulation.getTally());
+  }
+
+}
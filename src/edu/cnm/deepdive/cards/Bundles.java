@@ -0,0 +1,51 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lazily loaded, per-{@link Locale} cache of the {@link ResourceBundle
+ * ResourceBundles} used for console output. A bundle is loaded the first time
+ * it's requested for a given base name and locale, rather than when the class
+ * using it is initialized; code that never produces localized text (e.g. the
+ * simulators) therefore never pays the cost of locating and parsing the
+ * properties files. Subsequent requests are a single hash lookup.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+final class Bundles {
+
+  private static final Map<Locale, Map<String, ResourceBundle>> CACHE =
+      new ConcurrentHashMap<>();
+
+  private Bundles() {
+  }
+
+  /**
+   * Returns the bundle with the specified base name for the current default
+   * locale, loading it if necessary.
+   *
+   * @param baseName  base name of the bundle.
+   * @return          resource bundle.
+   */
+  static ResourceBundle get(String baseName) {
+    return get(baseName, Locale.getDefault());
+  }
+
+  /**
+   * Returns the bundle with the specified base name for the specified locale,
+   * loading it if necessary.
+   *
+   * @param baseName  base name of the bundle.
+   * @param locale    locale for which the bundle is required.
+   * @return          resource bundle.
+   */
+  static ResourceBundle get(String baseName, Locale locale) {
+    return CACHE
+        .computeIfAbsent(locale, (key) -> new ConcurrentHashMap<>())
+        .computeIfAbsent(baseName, (key) -> ResourceBundle.getBundle(key, locale));
+  }
+
+}
@@ -9,6 +9,20 @@ package edu.cnm.deepdive.cards;
  */
 public class Card implements Comparable<Card> {
 
+  /** Number of distinct values returned by {@link #getCode()}. */
+  public static final int NUM_CODES = Suit.values().length * Rank.values().length;
+
+  private static final Card[] CANONICAL = new Card[NUM_CODES];
+
+  static {
+    for (Suit suit : Suit.values()) {
+      for (Rank rank : Rank.values()) {
+        Card card = new Card(rank, suit);
+        CANONICAL[card.getCode()] = card;
+      }
+    }
+  }
+
   private Rank rank;
   private Suit suit;
 
@@ -42,6 +56,34 @@ public class Card implements Comparable<Card> {
     return suit;
   }
 
+  /**
+   * Returns a compact integer encoding of this instance, in the range
+   * <code>[0, {@link #NUM_CODES})</code>, suitable for storage in primitive
+   * arrays and files. The code is computed from the suit and rank ordinals, so
+   * it follows the same "factory" order as {@link #compareTo(Card)}.
+   *
+   * @return     integer code of this card.
+   */
+  public int getCode() {
+    return suit.ordinal() * Rank.values().length + rank.ordinal();
+  }
+
+  /**
+   * Returns a <code>Card</code> with the rank and suit encoded in the specified
+   * code, as returned by {@link #getCode()}. Since cards are immutable, the
+   * same instance is returned for every invocation with a given code.
+   *
+   * @param code                        integer code of a card.
+   * @return                            card with the encoded rank and suit.
+   * @throws IllegalArgumentException   if <code>code</code> is out of range.
+   */
+  public static Card fromCode(int code) {
+    if (code < 0 || code >= NUM_CODES) {
+      throw new IllegalArgumentException();
+    }
+    return CANONICAL[code];
+  }
+
   @Override
   public int compareTo(Card other) {
     int comparison = suit.compareTo(other.suit);
@@ -0,0 +1,68 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.Random;
+
+/**
+ * Subclass of {@link Random} whose internal state can be read and restored, so
+ * that a long-running simulation can be checkpointed and later resumed with an
+ * identical sequence of random values. The generator uses the same linear
+ * congruential algorithm (and produces the same sequence for a given seed) as
+ * {@link Random} itself.
+ * <p>Note that the value cached by {@link Random#nextGaussian()} is not part of
+ * the state returned by {@link #getState()}; code that must be resumable should
+ * not use that method.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class CheckpointableRandom extends Random {
+
+  private static final long serialVersionUID = 1L;
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
+
+  private long state;
+
+  /**
+   * Initializes this instance with the specified seed.
+   *
+   * @param seed  initial seed.
+   */
+  public CheckpointableRandom(long seed) {
+    super(seed);
+  }
+
+  @Override
+  public synchronized void setSeed(long seed) {
+    state = (seed ^ MULTIPLIER) & MASK;
+    super.setSeed(seed);
+  }
+
+  @Override
+  protected int next(int bits) {
+    state = (state * MULTIPLIER + ADDEND) & MASK;
+    return (int) (state >>> (48 - bits));
+  }
+
+  /**
+   * Returns the current internal state of this generator. Passing this value to
+   * {@link #setState(long)} (on this or another instance) will reproduce the
+   * sequence of values generated from this point forward.
+   *
+   * @return    internal generator state.
+   */
+  public long getState() {
+    return state;
+  }
+
+  /**
+   * Restores the internal state of this generator to a value previously
+   * returned by {@link #getState()}.
+   *
+   * @param state   internal generator state.
+   */
+  public void setState(long state) {
+    this.state = state & MASK;
+  }
+
+}
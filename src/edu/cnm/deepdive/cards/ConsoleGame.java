@@ -1,10 +1,14 @@
 package edu.cnm.deepdive.cards;
 
 import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+import edu.cnm.deepdive.cards.GameEvent.Type;
 import java.security.SecureRandom;
-import java.util.Random;
+import java.util.Arrays;
 import java.util.ResourceBundle;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
@@ -19,9 +23,11 @@ public class ConsoleGame {
 
   private static final int INITIAL_POT = 100;
   private static final int MAX_BET = 10;
+  private static final int SHOE_DEPTH = 2;
   private static final Pattern NON_WHITE_SPACE = Pattern.compile("\\S+");
+  private static final long EVENT_LOG_TIMEOUT = 1000;
+  private static final int OUTPUT_QUEUE_CAPACITY = 64;
 
-  public static ResourceBundle bundle;
   public static final String RESOURCE_BUNDLE = "resources/console_game";
   public static final String POT_AMOUNT_KEY = "pot_amount_pattern";
   public static final String DEALERS_TOP_CARD_KEY = "dealers_top_card_pattern";
@@ -35,56 +41,87 @@ public class ConsoleGame {
   public static final String PLAYERS_WINNINGS_KEY = "players_winnings_pattern";
   public static final String PLAYERS_LOSS_KEY = "players_loss_pattern";
   public static final String PUSH_KEY = "push_pattern";
-
-  // static initializer block, get used to it 😉
-  static {
-    bundle = ResourceBundle.getBundle(RESOURCE_BUNDLE);
-  }
-
+  public static final String EVENTS_OPTION = "--events";
+  public static final String ASYNC_OUTPUT_OPTION = "--async-output";
 
   /**
+   * Runs the game, publishing its events to a {@link GameEventPublisher}. If
+   * {@link #EVENTS_OPTION} is specified, the events are also logged to {@link
+   * System#err}. If {@link #ASYNC_OUTPUT_OPTION} is specified, console output
+   * is written by a background thread, through an {@link OutputSink.Async}.
    *
-   * @param args
+   * @param args  command-line arguments.
    */
   public static void main(String... args) {
-    try (Scanner scanner = new Scanner(System.in)) {
-      Random rng = new SecureRandom();
-      Deck deck = new Deck();
+    EventLogger logger = null;
+    OutputSink console = new OutputSink.Stream(System.out);
+    try (
+        Scanner scanner = new Scanner(System.in);
+        OutputSink writer = Arrays.asList(args).contains(ASYNC_OUTPUT_OPTION)
+            ? new OutputSink.Async(console, OUTPUT_QUEUE_CAPACITY)
+            : console;
+        OutputSink out = new OutputSink.Buffered(writer);
+        ShoeProducer shoes = new ShoeProducer(SHOE_DEPTH, 1, SecureRandom::new);
+        GameEventPublisher events = new GameEventPublisher();
+    ) {
+      if (Arrays.asList(args).contains(EVENTS_OPTION)) {
+        logger = new EventLogger();
+        events.subscribe(logger);
+      }
       int pot = INITIAL_POT;
       for (boolean play = true; play; play &= pot > 0) {
-        System.out.printf(bundle.getString(POT_AMOUNT_KEY), pot);
-        int bet = getBet(scanner, pot);
+        out.printf(bundle().getString(POT_AMOUNT_KEY), pot);
+        int bet = getBet(scanner, out, pot);
         if (bet > 0) {
-          deck.gather();
-          deck.shuffle(rng);
+          Deck deck = shoes.take();
+          // Decks are shuffled by the producer, before the publisher is attached.
+          deck.setEventPublisher(events);
+          events.publish(Type.SHUFFLE, null, 0);
           BlackjackHand dealer = new BlackjackDealerHand(deck);
-          BlackjackHand player = new InteractiveBlackjackHand(deck, scanner);
+          InteractiveBlackjackHand player = new InteractiveBlackjackHand(deck, scanner, out);
           Card topCard = dealer.getHand()[1];
-          System.out.printf(bundle.getString(DEALERS_TOP_CARD_KEY), topCard);
+          out.printf(bundle().getString(DEALERS_TOP_CARD_KEY), topCard);
+          int gain = 0;
           if (!player.isBlackjack()
               || (topCard.getRank() != Rank.ACE)
-              || !buyInsurance(scanner, player)) {
-            pot += playHands(scanner, player, dealer, bet);
+              || !buyInsurance(scanner, out, player)) {
+            gain = playHands(out, player, dealer, bet);
+          } else {
+            events.publish(Type.INSURANCE, null, bet);
           }
+          pot += gain;
+          events.publish(Type.PAYOUT, null, gain);
+          deck.setEventPublisher(null);
+          shoes.recycle(deck);
         } else {
           play = false;
         }
       }
-      System.out.printf(bundle.getString(AMOUNT_WHEN_LEAVING_TABLE_KEY), pot);
+      out.printf(bundle().getString(AMOUNT_WHEN_LEAVING_TABLE_KEY), pot);
     } catch (InsufficientCardsException e) {
       /*
       In this program, this exception should never occur. If it does, wrap it in
       and throw a RuntimeException, terminating the program.
       */
       throw new RuntimeException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (logger != null) {
+      logger.await();
     }
   }
 
-  private static int getBet(Scanner scanner, int pot) {
+  private static ResourceBundle bundle() {
+    return Bundles.get(RESOURCE_BUNDLE);
+  }
+
+  private static int getBet(Scanner scanner, OutputSink out, int pot) {
     int bet = -1;
     int maxBet = Math.min(10, MAX_BET);
     do {
-      System.out.printf(bundle.getString(PLAYERS_BET_KEY), maxBet);
+      out.printf(bundle().getString(PLAYERS_BET_KEY), maxBet);
+      out.flush();
       while (!scanner.hasNext()) {}
       if (scanner.hasNextInt()) {
         int input = scanner.nextInt();
@@ -97,16 +134,17 @@ public class ConsoleGame {
     return bet;
   }
 
-  private static boolean buyInsurance(Scanner scanner, BlackjackHand player) {
+  private static boolean buyInsurance(Scanner scanner, OutputSink out, BlackjackHand player) {
     Boolean insure = null;
-    System.out.println(player);
+    out.println(player);
     while (insure == null) {
-      System.out.print(bundle.getString(BUY_INSURANCE_QUESTION_KEY));
+      out.print(bundle().getString(BUY_INSURANCE_QUESTION_KEY));
+      out.flush();
       while (!scanner.hasNext(NON_WHITE_SPACE)) {}
       char input = scanner.next(NON_WHITE_SPACE).toLowerCase().charAt(0);
-      if (input == bundle.getString(USER_CHOOSES_YES_KEY).charAt(0)) {
+      if (input == bundle().getString(USER_CHOOSES_YES_KEY).charAt(0)) {
         insure = true;
-      } else if (input == bundle.getString(USER_CHOOSES_NO_KEY).charAt(0)) {
+      } else if (input == bundle().getString(USER_CHOOSES_NO_KEY).charAt(0)) {
         insure = false;
       }
       scanner.nextLine();
@@ -114,28 +152,67 @@ public class ConsoleGame {
     return insure;
   }
 
-  private static int playHands(Scanner scanner, InteractiveBlackjackHand player, BlackjackHand dealer, int bet)
+  private static int playHands(OutputSink out, InteractiveBlackjackHand player, BlackjackHand dealer, int bet)
       throws InsufficientCardsException {
     int gain = 0;
-    System.out.printf(bundle.getString(PLAYERS_PLAY_KEY));
+    out.printf(bundle().getString(PLAYERS_PLAY_KEY));
     player.play();
-    System.out.printf(bundle.getString(DEALERS_PLAY_KEY));
+    out.printf(bundle().getString(DEALERS_PLAY_KEY));
     if (!player.isBusted()) {
       dealer.play();
     }
-    System.out.printf("\t%s%n", dealer);
+    out.printf("\t%s%n", dealer);
     int comparison = player.compareTo(dealer);
     if (comparison > 0) {
       gain = player.isBlackjack() ? bet * 3 / 2 : bet;
-      gain = player.isDoubleDown() ? gain * 2;
-      System.out.printf(bundle.getString(PLAYERS_WINNINGS_KEY), gain);
+      gain = player.isDoubleDown() ? gain * 2 : gain;
+      out.printf(bundle().getString(PLAYERS_WINNINGS_KEY), gain);
     } else if (comparison < 0 || dealer.isBlackjack()) {
       gain = player.isDoubleDown() ? -bet * 2 : -bet;
-      System.out.printf(bundle.getString(PLAYERS_LOSS_KEY), bet);
+      out.printf(bundle().getString(PLAYERS_LOSS_KEY), bet);
     } else {
-      System.out.printf(bundle.getString(PUSH_KEY));
+      out.printf(bundle().getString(PUSH_KEY));
     }
     return gain;
   }
 
+  private static class EventLogger implements Flow.Subscriber<GameEvent> {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /*
+    Events are delivered on daemon threads, so give the logger a chance to
+    catch up before the program exits.
+    */
+    private void await() {
+      try {
+        done.await(EVENT_LOG_TIMEOUT, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(GameEvent event) {
+      System.err.println(event);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      throwable.printStackTrace();
+      done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      done.countDown();
+    }
+
+  }
+
 }
@@ -0,0 +1,196 @@
+package edu.cnm.deepdive.cards;
+
+import edu.cnm.deepdive.cards.GameEvent.Type;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * {@link Deck} that models a continuous shuffling machine (CSM): each card
+ * dealt is drawn uniformly at random from all of the undealt cards, and the
+ * discards collected by {@link #gather()} (typically at the end of each round)
+ * go straight back into the machine, rather than waiting for a full shuffle.
+ * <p>The cards are held in a single slot array, with the undealt cards at the
+ * front and the dealt cards behind them. A card is dealt by swapping a
+ * randomly selected undealt card into the last undealt slot, and moving the
+ * boundary down by one; since every draw is uniformly random, the order of the
+ * undealt slots never matters, so {@link #gather()} reinserts all of the dealt
+ * cards simply by moving the boundary back to the end. Both are constant-time
+ * operations that allocate nothing.</p>
+ * <p>Because the undealt cards have no meaningful order, {@link
+ * #shuffle(Random)} doesn't rearrange anything, and {@link #sort()} is not
+ * supported. {@link #snapshot()} and {@link #restore(long)} return the same
+ * cards to the undealt pool, but cards dealt after a restore are fresh random
+ * draws, not necessarily those dealt the first time.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class ContinuousShufflingDeck extends Deck {
+
+  private final Card[] slots;
+  private final Random rng;
+  private final SplittableRandom forkSeeds;
+  private int undealtCount;
+  private int generation = nextGeneration();
+
+  /**
+   * Initializes this instance with a single deck of cards, drawn at random
+   * using the specified source of randomness.
+   *
+   * @param rng   random number generator.
+   */
+  public ContinuousShufflingDeck(Random rng) {
+    this(1, rng);
+  }
+
+  /**
+   * Initializes this instance with the specified number of decks of cards,
+   * drawn at random using the specified source of randomness.
+   *
+   * @param numDecks                    number of decks loaded into the
+   *                                    machine.
+   * @param rng                         random number generator.
+   * @throws IllegalArgumentException   if <code>numDecks</code> is not
+   *                                    positive.
+   */
+  public ContinuousShufflingDeck(int numDecks, Random rng) {
+    super(new Card[0]);
+    if (numDecks <= 0) {
+      throw new IllegalArgumentException();
+    }
+    slots = new Card[numDecks * Card.NUM_CODES];
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = Card.fromCode(i % Card.NUM_CODES);
+    }
+    this.rng = rng;
+    forkSeeds = new SplittableRandom(rng.nextLong());
+    undealtCount = slots.length;
+    shuffled = true;
+  }
+
+  private ContinuousShufflingDeck(ContinuousShufflingDeck other) {
+    super(new Card[0]);
+    slots = other.slots.clone();
+    rng = new Random(other.forkSeeds.nextLong());
+    forkSeeds = other.forkSeeds.split();
+    undealtCount = other.undealtCount;
+    shuffled = true;
+  }
+
+  /**
+   * Publishes a shuffle event, if a {@link GameEventPublisher} is attached;
+   * otherwise, has no effect, since the undealt cards are always in random
+   * order. Note that <code>rng</code> is not used: cards continue to be drawn
+   * with the random number generator specified in the constructor.
+   *
+   * @param rng   ignored.
+   */
+  @Override
+  public void shuffle(Random rng) {
+    generation = nextGeneration();
+    GameEventPublisher events = getEventPublisher();
+    if (events != null) {
+      events.publish(Type.SHUFFLE, null, 0);
+    }
+  }
+
+  /**
+   * Returns all dealt cards to the machine, in constant time.
+   */
+  @Override
+  public void gather() {
+    undealtCount = slots.length;
+    generation = nextGeneration();
+  }
+
+  /**
+   * Not supported, since a continuous shuffling machine doesn't deal in any
+   * particular order.
+   *
+   * @throws UnsupportedOperationException  always.
+   */
+  @Override
+  public void sort() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public int getUndealtCount() {
+    return undealtCount;
+  }
+
+  @Override
+  Card[] getUndealt() {
+    return Arrays.copyOfRange(slots, 0, undealtCount);
+  }
+
+  @Override
+  Card[] getDealt() {
+    return Arrays.copyOfRange(slots, undealtCount, slots.length);
+  }
+
+  @Override
+  public long snapshot() {
+    return ((long) generation << Integer.SIZE) | (slots.length - undealtCount);
+  }
+
+  /**
+   * Returns the cards dealt since a position previously recorded with {@link
+   * #snapshot()} to the machine. The time required is constant; the cards
+   * dealt next are random draws, which will generally differ from those
+   * dealt after the snapshot was taken.
+   *
+   * @param snapshot                token returned by {@link #snapshot()}.
+   * @throws IllegalStateException  if the deck has been shuffled or gathered
+   *                                since the snapshot was taken, or if the
+   *                                snapshot was taken from another deck.
+   */
+  @Override
+  public void restore(long snapshot) {
+    int dealtCount = (int) snapshot;
+    if ((int) (snapshot >>> Integer.SIZE) != generation
+        || dealtCount > slots.length - undealtCount) {
+      throw new IllegalStateException();
+    }
+    undealtCount = slots.length - dealtCount;
+  }
+
+  /**
+   * Returns an independent copy of this deck, with the same undealt and dealt
+   * cards. The copy draws cards with a new random number generator, seeded
+   * from a source reserved for forks (itself seeded once, from the generator
+   * specified in the constructor); thus, forking doesn't change the cards that
+   * this instance deals afterwards.
+   *
+   * @return  copy of this deck.
+   */
+  @Override
+  public ContinuousShufflingDeck fork() {
+    return new ContinuousShufflingDeck(this);
+  }
+
+  /**
+   * Removes and returns a single {@link Card} instance, selected uniformly at
+   * random from the undealt cards.
+   *
+   * @return                              single card.
+   * @throws InsufficientCardsException   if all of the cards have been dealt.
+   */
+  @Override
+  public Card deal() throws InsufficientCardsException {
+    if (undealtCount == 0) {
+      throw new InsufficientCardsException();
+    }
+    int last = --undealtCount;
+    int selected = rng.nextInt(undealtCount + 1);
+    Card card = slots[selected];
+    slots[selected] = slots[last];
+    slots[last] = card;
+    GameEventPublisher events = getEventPublisher();
+    if (events != null) {
+      events.publish(Type.DEAL, card, 0);
+    }
+    return card;
+  }
+
+}
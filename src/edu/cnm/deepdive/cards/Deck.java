@@ -1,24 +1,40 @@
 package edu.cnm.deepdive.cards;
 
+import edu.cnm.deepdive.cards.GameEvent.Type;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.EmptyStackException;
-import java.util.LinkedList;
 import java.util.Random;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <code>Deck</code> encapsulates a single deck of standard playing cards, with
  * methods for shuffling, sorting (to original, "factory" order), and dealing
  * cards.
+ * <p>For lookahead and what-if analysis, the position of the deck can be
+ * recorded with {@link #snapshot()} and returned to with {@link
+ * #restore(long)}, which puts back the cards dealt in between; alternatively,
+ * an independent copy of the deck can be made with {@link #fork()}.</p>
+ * <p>If a {@link GameEventPublisher} is attached with {@link
+ * #setEventPublisher(GameEventPublisher)}, each shuffle and each card dealt
+ * is published as a {@link GameEvent}. A {@link #fork()} has no publisher
+ * attached, so lookahead done on a fork is invisible to subscribers; cards
+ * dealt before a {@link #restore(long)}, on the other hand, have already been
+ * published.</p>
  *
  * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
  */
 public class Deck {
 
+  private static final AtomicInteger GENERATIONS = new AtomicInteger();
+
   private Stack<Card> cards = new Stack<>();
-  private Deque<Card> dealt = new LinkedList<>();
+  private Deque<Card> dealt = new ArrayDeque<>();
+  private int generation = nextGeneration();
+  private GameEventPublisher events;
   boolean shuffled = false;
 
   /**
@@ -49,6 +65,26 @@ public class Deck {
     this.cards.addAll(Arrays.asList(cards));
   }
 
+  /**
+   * Initializes this instance with the specified undealt and dealt cards, as
+   * previously returned by {@link #getUndealt()} and {@link #getDealt()}. This
+   * is used to restore a deck from a checkpoint, so that play continues exactly
+   * where it left off.
+   *
+   * @param undealt   undealt cards, from the bottom to the top of the deck.
+   * @param dealt     dealt cards, from the most to the least recently dealt.
+   */
+  Deck(Card[] undealt, Card[] dealt) {
+    cards.addAll(Arrays.asList(undealt));
+    this.dealt.addAll(Arrays.asList(dealt));
+  }
+
+  private Deck(Deck other) {
+    cards.addAll(other.cards);
+    dealt.addAll(other.dealt);
+    shuffled = other.shuffled;
+  }
+
   /**
    * Shuffles the undealt contents of the deck using the supplied source of
    * randomness.
@@ -58,6 +94,10 @@ public class Deck {
   public void shuffle(Random rng) {
     Collections.shuffle(cards, rng);
     shuffled = true;
+    generation = nextGeneration();
+    if (events != null) {
+      events.publish(Type.SHUFFLE, null, 0);
+    }
   }
 
   /**
@@ -66,6 +106,7 @@ public class Deck {
   public void gather() {
     cards.addAll(dealt);
     dealt.clear();
+    generation = nextGeneration();
   }
 
   /**
@@ -75,6 +116,7 @@ public class Deck {
   public void sort() {
     Collections.sort(cards);
     shuffled = false;
+    generation = nextGeneration();
   }
 
   /**
@@ -86,6 +128,105 @@ public class Deck {
     return shuffled;
   }
 
+  /**
+   * Returns the number of cards remaining to be dealt.
+   *
+   * @return  number of undealt cards.
+   */
+  public int getUndealtCount() {
+    return cards.size();
+  }
+
+  /**
+   * Returns the undealt cards, from the bottom to the top of the deck (i.e. the
+   * last element of the array is the next card to be dealt).
+   *
+   * @return  undealt cards.
+   */
+  Card[] getUndealt() {
+    return cards.toArray(new Card[cards.size()]);
+  }
+
+  /**
+   * Returns the cards dealt since the last {@link #gather()}, from the most to
+   * the least recently dealt.
+   *
+   * @return  dealt cards.
+   */
+  Card[] getDealt() {
+    return dealt.toArray(new Card[dealt.size()]);
+  }
+
+  /**
+   * Returns the {@link GameEventPublisher} to which this deck publishes
+   * events.
+   *
+   * @return  event publisher, or <code>null</code> if none is attached.
+   */
+  public GameEventPublisher getEventPublisher() {
+    return events;
+  }
+
+  /**
+   * Attaches a {@link GameEventPublisher} to which this deck (and any {@link
+   * BlackjackHand} drawing from it) publishes events, replacing any
+   * previously attached.
+   *
+   * @param events  event publisher, or <code>null</code> to stop publishing.
+   */
+  public void setEventPublisher(GameEventPublisher events) {
+    this.events = events;
+  }
+
+  /**
+   * Records the current position of the deck, so that it can be returned to
+   * later with {@link #restore(long)}. This is a constant-time operation that
+   * allocates nothing; the cards dealt since the last {@link #gather()} serve
+   * as the undo log. The token includes a generation number, drawn from a
+   * counter shared by all decks whenever a deck is created, forked, shuffled,
+   * sorted, or gathered, so a token is specific to both the deck and the
+   * arrangement of its cards.
+   *
+   * @return  opaque token identifying the current position.
+   */
+  public long snapshot() {
+    return ((long) generation << Integer.SIZE) | dealt.size();
+  }
+
+  /**
+   * Returns the deck to a position previously recorded with {@link
+   * #snapshot()}, by putting the cards dealt since then back on top of the
+   * deck, in their original order. The time required is proportional to the
+   * number of cards put back.
+   *
+   * @param snapshot                token returned by {@link #snapshot()}.
+   * @throws IllegalStateException  if the deck has been shuffled, sorted, or
+   *                                gathered since the snapshot was taken, or
+   *                                if the snapshot was taken from another
+   *                                deck.
+   */
+  public void restore(long snapshot) {
+    int dealtCount = (int) snapshot;
+    if ((int) (snapshot >>> Integer.SIZE) != generation || dealtCount > dealt.size()) {
+      throw new IllegalStateException();
+    }
+    while (dealt.size() > dealtCount) {
+      cards.push(dealt.removeFirst());
+    }
+  }
+
+  /**
+   * Returns an independent copy of this deck, with the same undealt cards (in
+   * the same order) and dealt cards. Dealing from the copy does not affect this
+   * instance, or vice versa. The time required is proportional to the number
+   * of cards in the deck.
+   *
+   * @return  copy of this deck.
+   */
+  public Deck fork() {
+    return new Deck(this);
+  }
+
   /**
    * Removes and returns a single {@link Card} instance from the top of the deck.
    *
@@ -98,6 +239,9 @@ public class Deck {
     try {
       Card card = cards.pop();
       dealt.addFirst(card);
+      if (events != null) {
+        events.publish(Type.DEAL, card, 0);
+      }
       return card;
     } catch (EmptyStackException e) {
       throw new InsufficientCardsException();
@@ -123,13 +267,23 @@ public class Deck {
     return cardsDealt;
   }
 
+  /**
+   * Returns a new generation number, distinct from all others returned (until
+   * the counter wraps around, after 2<sup>32</sup> calls).
+   *
+   * @return  generation number.
+   */
+  static int nextGeneration() {
+    return GENERATIONS.incrementAndGet();
+  }
+
   /**
    * Exception type thrown when an attempt is made to deal one or more cards
    * from an empty deck.
    */
   public static class InsufficientCardsException extends Exception {
 
-    private InsufficientCardsException() {
+    InsufficientCardsException() {
       super();
     }
 
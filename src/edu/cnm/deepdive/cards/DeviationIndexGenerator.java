@@ -0,0 +1,250 @@
+package edu.cnm.deepdive.cards;
+
+import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Generates a {@link DeviationTable} of count-based index numbers for the
+ * hit/stand decisions of a {@link BasicStrategyBlackjackHand}, by simulation.
+ * Rounds are dealt from a {@link Deck} (reshuffled when the number of undealt
+ * cards falls below a threshold), with the player following basic strategy.
+ * At every decision point of the player, the position of the deck and both
+ * hands is recorded with {@link Deck#snapshot()} and {@link
+ * BlackjackHand#snapshot()}, and both plays are resolved from it: standing
+ * (the dealer plays out), and hitting once and then continuing with basic
+ * strategy. Since both plays see the same cards, the difference in their
+ * outcomes has much less variance than that of independent samples.
+ * <p>Differences are accumulated by decision and by the Hi-Lo true count at
+ * the decision (computed from the cards visible to the player, and clamped to
+ * the range &plusmn;{@link #MAX_TRUE_COUNT}). The index of each decision is
+ * then the count threshold that maximizes the total simulated result of
+ * standing at or above it and hitting below it, among the thresholds whose
+ * departure from basic strategy is supported by at least {@link
+ * #MIN_SAMPLES} decisions, and improves on basic strategy by at least {@link
+ * #CONFIDENCE} standard errors. Where no threshold qualifies, the decision
+ * keeps the basic strategy play; this keeps the sparsely populated, clamped
+ * buckets at the extremes of the count from producing spurious deviations.
+ * Rounds are simulated in independent blocks, in parallel; the results
+ * are fully determined by the seed, regardless of the degree of
+ * parallelism.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class DeviationIndexGenerator {
+
+  /** Maximum magnitude of the true counts distinguished. */
+  public static final int MAX_TRUE_COUNT = 10;
+  /** Minimum number of decisions in which a deviation changes the play. */
+  public static final int MIN_SAMPLES = 1000;
+  /**
+   * Minimum improvement of a deviation over basic strategy, in standard
+   * errors.
+   */
+  public static final double CONFIDENCE = 4;
+
+  private static final int NUM_BUCKETS = 2 * MAX_TRUE_COUNT + 1;
+  private static final int NUM_CELLS = DeviationTable.NUM_DECISIONS * NUM_BUCKETS;
+  private static final int ROUNDS_PER_BLOCK = 100_000;
+
+  private final boolean hitOnSoft17;
+  private final int reshuffleThreshold;
+
+  /**
+   * Initializes this instance with the specified table rules.
+   *
+   * @param hitOnSoft17         flag indicating whether the dealer hits on a
+   *                            soft 17.
+   * @param reshuffleThreshold  minimum number of undealt cards required to
+   *                            start a round.
+   */
+  public DeviationIndexGenerator(boolean hitOnSoft17, int reshuffleThreshold) {
+    this.hitOnSoft17 = hitOnSoft17;
+    this.reshuffleThreshold = reshuffleThreshold;
+  }
+
+  /**
+   * Simulates the specified number of rounds, and computes the index number
+   * of every decision.
+   *
+   * @param rounds  number of rounds to simulate.
+   * @param seed    seed for random number generation.
+   * @return        table of index numbers.
+   */
+  public DeviationTable generate(long rounds, long seed) {
+    int blocks = (int) ((rounds + ROUNDS_PER_BLOCK - 1) / ROUNDS_PER_BLOCK);
+    long[] statistics = IntStream.range(0, blocks)
+        .parallel()
+        .mapToObj((block) -> simulateBlock(
+            Math.min(ROUNDS_PER_BLOCK, rounds - (long) block * ROUNDS_PER_BLOCK),
+            new Random(seed + block)))
+        .reduce(new long[3 * NUM_CELLS], (a, b) -> {
+          long[] sum = new long[a.length];
+          for (int i = 0; i < sum.length; i++) {
+            sum[i] = a[i] + b[i];
+          }
+          return sum;
+        });
+    byte[] indices = new byte[DeviationTable.NUM_DECISIONS];
+    for (int soft = 0; soft < 2; soft++) {
+      for (int total = DeviationTable.MIN_TOTAL; total <= DeviationTable.MAX_TOTAL; total++) {
+        for (int up = DeviationTable.MIN_UP_CARD_VALUE; up <= DeviationTable.MAX_UP_CARD_VALUE;
+            up++) {
+          int decision = DeviationTable.decision(total, soft != 0, up);
+          indices[decision] = (byte) index(statistics, decision,
+              DeviationTable.basicStrategyIndex(total, soft != 0, up));
+        }
+      }
+    }
+    return new DeviationTable(indices);
+  }
+
+  /*
+  For each decision and count bucket, the returned array holds the sum of the
+  differences (stand minus hit), the sum of their squares, and the number of
+  samples, in 3 consecutive regions of NUM_CELLS elements.
+  */
+  private long[] simulateBlock(long rounds, Random rng) {
+    long[] statistics = new long[3 * NUM_CELLS];
+    Deck deck = new Deck();
+    deck.shuffle(rng);
+    int runningCount = 0;
+    try {
+      for (long round = 0; round < rounds; round++) {
+        BlackjackHand dealer = new BlackjackDealerHand(deck, hitOnSoft17);
+        Card upCard = dealer.getHand()[1];
+        BlackjackHand player = new BasicStrategyBlackjackHand(deck, upCard);
+        if (!player.isBlackjack() && !dealer.isBlackjack()) {
+          int upCardValue = BasicStrategyBlackjackHand.upCardValue(upCard.getRank());
+          int visibleCount = runningCount + count(player.getHand())
+              + BlackjackSimulation.hiLoTag(upCard.getRank());
+          while (player.getTotal() < 21) {
+            int trueCount = Math.floorDiv(visibleCount * Card.NUM_CODES,
+                deck.getUndealtCount() + 1);
+            int bucket = Math.max(-MAX_TRUE_COUNT, Math.min(MAX_TRUE_COUNT, trueCount))
+                + MAX_TRUE_COUNT;
+            int decision = DeviationTable.decision(player.getTotal(), player.isSoft(), upCardValue);
+            int cell = decision * NUM_BUCKETS + bucket;
+            int difference = compare(deck, player, dealer);
+            statistics[cell] += difference;
+            statistics[NUM_CELLS + cell] += difference * difference;
+            statistics[2 * NUM_CELLS + cell]++;
+            if (!BasicStrategyBlackjackHand.shouldHit(player.getTotal(), player.isSoft(),
+                upCardValue)) {
+              break;
+            }
+            player.hit();
+            Card[] cards = player.getHand();
+            visibleCount += BlackjackSimulation.hiLoTag(cards[cards.length - 1].getRank());
+          }
+          if (!player.isBusted()) {
+            dealer.play();
+          }
+        }
+        if (deck.getUndealtCount() < reshuffleThreshold) {
+          deck.gather();
+          deck.shuffle(rng);
+          runningCount = 0;
+        } else {
+          runningCount += count(player.getHand()) + count(dealer.getHand());
+        }
+      }
+    } catch (InsufficientCardsException e) {
+      /*
+      With a sensible reshuffle threshold, this exception should never occur. If
+      it does, wrap it in and throw a RuntimeException.
+      */
+      throw new RuntimeException(e);
+    }
+    return statistics;
+  }
+
+  private int compare(Deck deck, BlackjackHand player, BlackjackHand dealer)
+      throws InsufficientCardsException {
+    long deckSnapshot = deck.snapshot();
+    int playerSnapshot = player.snapshot();
+    int dealerSnapshot = dealer.snapshot();
+    int stand = settle(player, dealer);
+    dealer.restore(dealerSnapshot);
+    deck.restore(deckSnapshot);
+    player.hit();
+    player.play();
+    int hit = settle(player, dealer);
+    player.restore(playerSnapshot);
+    dealer.restore(dealerSnapshot);
+    deck.restore(deckSnapshot);
+    return stand - hit;
+  }
+
+  private static int settle(BlackjackHand player, BlackjackHand dealer)
+      throws InsufficientCardsException {
+    if (!player.isBusted()) {
+      dealer.play();
+    }
+    return Integer.signum(player.compareTo(dealer));
+  }
+
+  private static int index(long[] statistics, int decision, int basicStrategyIndex) {
+    int offset = decision * NUM_BUCKETS;
+    // Suffix sums, so that buckets [threshold, NUM_BUCKETS) are stood on.
+    long[] gains = new long[NUM_BUCKETS + 1];
+    long[] squares = new long[NUM_BUCKETS + 1];
+    long[] counts = new long[NUM_BUCKETS + 1];
+    for (int bucket = NUM_BUCKETS - 1; bucket >= 0; bucket--) {
+      gains[bucket] = gains[bucket + 1] + statistics[offset + bucket];
+      squares[bucket] = squares[bucket + 1] + statistics[NUM_CELLS + offset + bucket];
+      counts[bucket] = counts[bucket + 1] + statistics[2 * NUM_CELLS + offset + bucket];
+    }
+    int basic = (basicStrategyIndex == DeviationTable.ALWAYS_STAND) ? 0 : NUM_BUCKETS;
+    int best = basic;
+    for (int threshold = 0; threshold <= NUM_BUCKETS; threshold++) {
+      // Buckets between the threshold and the basic strategy play are changed.
+      int low = Math.min(threshold, basic);
+      int high = Math.max(threshold, basic);
+      long improvement = gains[threshold] - gains[basic];
+      long n = counts[low] - counts[high];
+      double variance = (squares[low] - squares[high])
+          - (n > 0 ? (double) improvement * improvement / n : 0);
+      if (n >= MIN_SAMPLES
+          && improvement > CONFIDENCE * Math.sqrt(variance)
+          && gains[threshold] > gains[best]) {
+        best = threshold;
+      }
+    }
+    int index;
+    if (best == 0) {
+      index = DeviationTable.ALWAYS_STAND;
+    } else if (best == NUM_BUCKETS) {
+      index = DeviationTable.ALWAYS_HIT;
+    } else {
+      index = best - MAX_TRUE_COUNT;
+    }
+    return index;
+  }
+
+  private static int count(Card[] cards) {
+    int count = 0;
+    for (Card card : cards) {
+      count += BlackjackSimulation.hiLoTag(card.getRank());
+    }
+    return count;
+  }
+
+  /**
+   * Runs the generator from the command line, printing the resulting table.
+   * The arguments are the number of rounds (default 10,000,000), the seed
+   * (default 0), and a flag indicating whether the dealer hits on soft 17
+   * (default <code>true</code>).
+   *
+   * @param args  command-line arguments.
+   */
+  public static void main(String... args) {
+    long rounds = (args.length > 0) ? Long.parseLong(args[0]) : 10_000_000;
+    long seed = (args.length > 1) ? Long.parseLong(args[1]) : 0;
+    boolean hitOnSoft17 = args.length <= 2 || Boolean.parseBoolean(args[2]);
+    new DeviationIndexGenerator(hitOnSoft17, BlackjackSimulation.DEFAULT_RESHUFFLE_THRESHOLD)
+        .generate(rounds, seed)
+        .print(System.out);
+  }
+
+}
@@ -0,0 +1,157 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Compact table of count-based deviations from basic strategy, as produced by
+ * {@link DeviationIndexGenerator}. For each player total (hard or soft) and
+ * dealer up-card, the table holds an index number: the player should stand if
+ * the true count is at least the index, and hit otherwise. Decisions where
+ * the best play doesn't depend on the count are marked to always hit or
+ * always stand. Lookups are a single array access.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class DeviationTable {
+
+  /** Index of a decision where the player should always hit. */
+  public static final int ALWAYS_HIT = Byte.MAX_VALUE;
+  /** Index of a decision where the player should always stand. */
+  public static final int ALWAYS_STAND = Byte.MIN_VALUE;
+
+  static final int MIN_TOTAL = 4;
+  static final int MAX_TOTAL = 20;
+  static final int MIN_UP_CARD_VALUE = 2;
+  static final int MAX_UP_CARD_VALUE = 11;
+  static final int NUM_TOTALS = MAX_TOTAL - MIN_TOTAL + 1;
+  static final int NUM_UP_CARD_VALUES = MAX_UP_CARD_VALUE - MIN_UP_CARD_VALUE + 1;
+  static final int NUM_DECISIONS = 2 * NUM_TOTALS * NUM_UP_CARD_VALUES;
+
+  private static final int MAGIC = 0x424a4454;
+  private static final String[] UP_CARD_SYMBOLS = {"2", "3", "4", "5", "6", "7", "8", "9", "T", "A"};
+
+  private final byte[] indices;
+
+  DeviationTable(byte[] indices) {
+    this.indices = indices;
+  }
+
+  /**
+   * Returns a table with no count-based deviations, equivalent to the hit/stand
+   * portion of basic strategy implemented by {@link
+   * BasicStrategyBlackjackHand}.
+   *
+   * @return  basic strategy table.
+   */
+  public static DeviationTable basicStrategy() {
+    byte[] indices = new byte[NUM_DECISIONS];
+    for (int soft = 0; soft < 2; soft++) {
+      for (int total = MIN_TOTAL; total <= MAX_TOTAL; total++) {
+        for (int up = MIN_UP_CARD_VALUE; up <= MAX_UP_CARD_VALUE; up++) {
+          indices[decision(total, soft != 0, up)] = (byte) basicStrategyIndex(total, soft != 0, up);
+        }
+      }
+    }
+    return new DeviationTable(indices);
+  }
+
+  /**
+   * Returns the index number for the specified decision.
+   *
+   * @param total         point total of the player's hand, in the range
+   *                      4&ndash;20.
+   * @param soft          flag indicating whether the total includes a soft ace.
+   * @param upCardValue   dealer up-card value, as returned by {@link
+   *                      BasicStrategyBlackjackHand#upCardValue(Rank)}.
+   * @return              minimum true count at which the player should stand,
+   *                      or {@link #ALWAYS_HIT} or {@link #ALWAYS_STAND}.
+   */
+  public int getIndex(int total, boolean soft, int upCardValue) {
+    return indices[decision(total, soft, upCardValue)];
+  }
+
+  /**
+   * Returns the hit/stand decision for the specified total, softness, dealer
+   * up-card value, and true count.
+   *
+   * @param total         point total of the player's hand, in the range
+   *                      4&ndash;20.
+   * @param soft          flag indicating whether the total includes a soft ace.
+   * @param upCardValue   dealer up-card value, as returned by {@link
+   *                      BasicStrategyBlackjackHand#upCardValue(Rank)}.
+   * @param trueCount     current true count.
+   * @return              <code>true</code> if the player should hit.
+   */
+  public boolean shouldHit(int total, boolean soft, int upCardValue, int trueCount) {
+    return trueCount < indices[decision(total, soft, upCardValue)];
+  }
+
+  /**
+   * Writes this table to the specified destination, in a form that can be
+   * read with {@link #read(DataInput)}.
+   *
+   * @param out           destination.
+   * @throws IOException  if the table can't be written.
+   */
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(MAGIC);
+    out.write(indices);
+  }
+
+  /**
+   * Reads a table previously written with {@link #write(DataOutput)}.
+   *
+   * @param in            source.
+   * @return              table read.
+   * @throws IOException  if the table can't be read, or the data isn't a
+   *                      deviation table.
+   */
+  public static DeviationTable read(DataInput in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a deviation table.");
+    }
+    byte[] indices = new byte[NUM_DECISIONS];
+    in.readFully(indices);
+    return new DeviationTable(indices);
+  }
+
+  /**
+   * Prints this table, one line per hard and soft total, with one column per
+   * dealer up-card; each entry is an index number, or <code>H</code> (always
+   * hit) or <code>S</code> (always stand).
+   *
+   * @param out   destination of the table.
+   */
+  public void print(PrintStream out) {
+    out.print("    ");
+    for (String symbol : UP_CARD_SYMBOLS) {
+      out.printf("%4s", symbol);
+    }
+    out.println();
+    for (int soft = 0; soft < 2; soft++) {
+      for (int total = (soft != 0) ? 12 : MIN_TOTAL; total <= MAX_TOTAL; total++) {
+        out.printf("%s%-3d", (soft != 0) ? "S" : "H", total);
+        for (int up = MIN_UP_CARD_VALUE; up <= MAX_UP_CARD_VALUE; up++) {
+          int index = getIndex(total, soft != 0, up);
+          out.printf("%4s", (index == ALWAYS_HIT) ? "H"
+              : ((index == ALWAYS_STAND) ? "S" : String.format("%+d", index)));
+        }
+        out.println();
+      }
+    }
+  }
+
+  static int decision(int total, boolean soft, int upCardValue) {
+    return ((soft ? NUM_TOTALS : 0) + total - MIN_TOTAL) * NUM_UP_CARD_VALUES
+        + upCardValue - MIN_UP_CARD_VALUE;
+  }
+
+  static int basicStrategyIndex(int total, boolean soft, int upCardValue) {
+    return BasicStrategyBlackjackHand.shouldHit(total, soft, upCardValue)
+        ? ALWAYS_HIT : ALWAYS_STAND;
+  }
+
+}
@@ -0,0 +1,98 @@
+package edu.cnm.deepdive.cards;
+
+/**
+ * Event in a Blackjack game, as delivered to subscribers of a {@link
+ * GameEventPublisher}. To keep publishing free of allocation, instances are
+ * preallocated in each subscriber's buffer and reused: an event is valid only
+ * for the duration of the {@link java.util.concurrent.Flow.Subscriber#onNext
+ * onNext} invocation to which it is passed, and a subscriber that needs the
+ * data afterwards must copy it.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public final class GameEvent {
+
+  /**
+   * Kinds of game events.
+   */
+  public enum Type {
+
+    /** Undealt cards shuffled. */
+    SHUFFLE,
+    /** Card dealt from a deck; the card is available. */
+    DEAL,
+    /** Card drawn to a hand; the card is available. */
+    HIT,
+    /** Player stood. */
+    STAND,
+    /** Player doubled down; the card drawn follows as a {@link #HIT}. */
+    DOUBLE,
+    /** Player took insurance (even money); the amount is the bet. */
+    INSURANCE,
+    /** Round settled; the amount is the player's net gain (or loss, if negative). */
+    PAYOUT
+
+  }
+
+  private long sequence;
+  private Type type;
+  private Card card;
+  private int amount;
+
+  GameEvent() {
+  }
+
+  void set(long sequence, Type type, Card card, int amount) {
+    this.sequence = sequence;
+    this.type = type;
+    this.card = card;
+    this.amount = amount;
+  }
+
+  /**
+   * Returns the sequence number of this event. Sequence numbers are assigned
+   * consecutively by the publisher, so a gap indicates that events were
+   * dropped because the subscriber's buffer was full.
+   *
+   * @return  sequence number.
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns the kind of this event.
+   *
+   * @return  event type.
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Returns the card dealt or drawn, for {@link Type#DEAL} and {@link
+   * Type#HIT} events.
+   *
+   * @return  card, or <code>null</code> for other types of events.
+   */
+  public Card getCard() {
+    return card;
+  }
+
+  /**
+   * Returns the amount of a bet or payout, for {@link Type#INSURANCE} and
+   * {@link Type#PAYOUT} events.
+   *
+   * @return  amount, or 0 for other types of events.
+   */
+  public int getAmount() {
+    return amount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d %s%s", sequence, type,
+        (card != null) ? " " + card : ((amount != 0) ? " " + amount : ""));
+  }
+
+}
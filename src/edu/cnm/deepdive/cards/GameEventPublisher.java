@@ -0,0 +1,248 @@
+package edu.cnm.deepdive.cards;
+
+import edu.cnm.deepdive.cards.GameEvent.Type;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes a stream of {@link GameEvent GameEvents} to any number of {@link
+ * Flow.Subscriber Flow.Subscribers} &ndash; e.g. spectator displays, loggers,
+ * or analytics. Once a publisher is attached to a {@link Deck} with {@link
+ * Deck#setEventPublisher(GameEventPublisher)}, shuffles and deals are
+ * published by the deck, hits by any {@link BlackjackHand} drawing from it,
+ * and the remaining events by the game loop.
+ * <p>Each subscriber has its own bounded ring buffer of preallocated events,
+ * from which events are delivered on an {@link Executor}, as the subscriber
+ * requests them via {@link Flow.Subscription#request(long)}. {@link
+ * #publish(Type, Card, int)} never blocks and allocates nothing: the event data
+ * is copied into the next free slot of each buffer, and if a subscriber's
+ * buffer is full (because it hasn't requested, or hasn't kept up with,
+ * recent events), the event is dropped for that subscriber only. Dropped
+ * events show up as gaps in {@link GameEvent#getSequence()}, and are counted
+ * by {@link #getDropped()}. Since the slots are reused, an event is valid
+ * only for the duration of the {@link Flow.Subscriber#onNext(Object)} call to
+ * which it is passed.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class GameEventPublisher implements Flow.Publisher<GameEvent>, AutoCloseable {
+
+  /** Default number of events buffered for each subscriber. */
+  public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+  private final Executor executor;
+  private final int bufferCapacity;
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+  private final LongAdder dropped = new LongAdder();
+  private long sequence;
+  private volatile boolean closed;
+
+  /**
+   * Initializes this instance to deliver events on the {@link
+   * ForkJoinPool#commonPool()}, buffering up to {@link
+   * #DEFAULT_BUFFER_CAPACITY} events for each subscriber.
+   */
+  public GameEventPublisher() {
+    this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+  }
+
+  /**
+   * Initializes this instance to deliver events on the specified {@link
+   * Executor}, buffering up to the specified number of events for each
+   * subscriber.
+   *
+   * @param executor                    executor on which events are delivered
+   *                                    to subscribers.
+   * @param bufferCapacity              maximum number of events buffered for
+   *                                    each subscriber; rounded up to a power
+   *                                    of 2.
+   * @throws IllegalArgumentException   if <code>bufferCapacity</code> is not
+   *                                    positive.
+   */
+  public GameEventPublisher(Executor executor, int bufferCapacity) {
+    if (bufferCapacity <= 0 || bufferCapacity > 1 << 30) {
+      throw new IllegalArgumentException();
+    }
+    int capacity = 1;
+    while (capacity < bufferCapacity) {
+      capacity <<= 1;
+    }
+    this.executor = executor;
+    this.bufferCapacity = capacity;
+  }
+
+  /**
+   * Adds the specified subscriber, which will receive events published from
+   * now on (subject to its requests and buffer capacity). If this publisher is
+   * already closed, the subscriber is completed immediately.
+   *
+   * @param subscriber  subscriber to add.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super GameEvent> subscriber) {
+    Subscription subscription = new Subscription(subscriber);
+    subscriptions.add(subscription);
+    subscriber.onSubscribe(subscription);
+    if (closed) {
+      subscription.signal();
+    }
+  }
+
+  /**
+   * Publishes an event to all current subscribers, without blocking or
+   * allocating. This method is synchronized, so that events from different
+   * threads are assigned sequence numbers in the order they are buffered;
+   * with a single game loop thread, the lock is uncontended.
+   *
+   * @param type    event type.
+   * @param card    card dealt or drawn, or <code>null</code>.
+   * @param amount  amount of a bet or payout, or 0.
+   */
+  public synchronized void publish(Type type, Card card, int amount) {
+    if (!closed) {
+      long sequence = this.sequence++;
+      for (Subscription subscription : subscriptions) {
+        subscription.offer(sequence, type, card, amount);
+      }
+    }
+  }
+
+  /**
+   * Returns the total number of events dropped, across all subscribers,
+   * because a subscriber's buffer was full.
+   *
+   * @return  number of dropped events.
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Returns the number of current subscribers.
+   *
+   * @return  number of subscribers.
+   */
+  public int getSubscriberCount() {
+    return subscriptions.size();
+  }
+
+  /**
+   * Stops publishing events. Each subscriber receives {@link
+   * Flow.Subscriber#onComplete()} once the events already buffered for it
+   * have been delivered; events that the subscriber never requests are not
+   * delivered.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    for (Subscription subscription : subscriptions) {
+      subscription.signal();
+    }
+  }
+
+  private class Subscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super GameEvent> subscriber;
+    private final GameEvent[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Runnable drainer = this::drain;
+    private volatile boolean cancelled;
+    private boolean completed;
+
+    private Subscription(Flow.Subscriber<? super GameEvent> subscriber) {
+      this.subscriber = subscriber;
+      slots = new GameEvent[bufferCapacity];
+      for (int i = 0; i < slots.length; i++) {
+        slots[i] = new GameEvent();
+      }
+      mask = slots.length - 1;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        cancel();
+        subscriber.onError(new IllegalArgumentException());
+      } else {
+        requested.getAndAccumulate(n, (current, increment) -> {
+          long sum = current + increment;
+          return (sum < 0) ? Long.MAX_VALUE : sum;
+        });
+        signal();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      subscriptions.remove(this);
+    }
+
+    private void offer(long sequence, Type type, Card card, int amount) {
+      long t = tail.get();
+      if (t - head.get() == slots.length) {
+        dropped.increment();
+      } else {
+        slots[(int) t & mask].set(sequence, type, card, amount);
+        tail.set(t + 1);
+        if (requested.get() > 0) {
+          signal();
+        }
+      }
+    }
+
+    private void signal() {
+      if (pending.getAndIncrement() == 0) {
+        executor.execute(drainer);
+      }
+    }
+
+    /*
+    Only one drain runs at a time: signal() schedules a drain only when none is
+    pending, and a running drain repeats until it has accounted for every
+    signal received in the meantime. A slot is released (by advancing head)
+    only after onNext returns, so the publisher never overwrites an event that
+    is being delivered.
+    */
+    private void drain() {
+      int missed = 1;
+      do {
+        long h = head.get();
+        long r = requested.get();
+        long delivered = 0;
+        while (delivered < r && h < tail.get() && !cancelled) {
+          try {
+            subscriber.onNext(slots[(int) h & mask]);
+          } catch (Throwable e) {
+            cancel();
+          }
+          head.set(++h);
+          delivered++;
+        }
+        if (delivered > 0 && r != Long.MAX_VALUE) {
+          requested.addAndGet(-delivered);
+        }
+        if (closed && !cancelled && !completed && h == tail.get()) {
+          completed = true;
+          subscriptions.remove(this);
+          subscriber.onComplete();
+        }
+        missed = pending.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+  }
+
+}
@@ -0,0 +1,235 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finite-state automaton for evaluating Blackjack hands. Every hand collapses
+ * into one of a few dozen states (e.g. empty, hard 4&ndash;21, soft
+ * 12&ndash;21, blackjack, busted), each identified by a small
+ * <code>int</code>. The effect of drawing a card is a single lookup in a
+ * precomputed transition table, indexed by the current state and the {@link
+ * Rank#ordinal()} of the card; the total, value, and soft/blackjack/busted
+ * flags of each state are precomputed as well.
+ * <p>States retain only the information that affects the evaluation of the
+ * hand: the hard total (counting aces as 1 point each), whether the hand
+ * contains an ace, and &ndash; where it matters for a possible blackjack
+ * &ndash; whether the hand consists of just 1 or 2 cards. Busted states are
+ * absorbing; that is, drawing a card to a busted hand leaves it unchanged.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public final class HandStateTable {
+
+  /** State of a hand with no cards. */
+  public static final int INITIAL = 0;
+
+  private static final int[] VALUES = {
+      1,
+      2,
+      3,
+      4,
+      5,
+      6,
+      7,
+      8,
+      9,
+      10,
+      10,
+      10,
+      10,
+  };
+  private static final int NUM_RANKS = VALUES.length;
+
+  private static final int EMPTY = 0;
+  private static final int SINGLE = 1;
+  private static final int PAIR = 2;
+  private static final int MANY = 3;
+
+  private static final int[] TRANSITIONS;
+  private static final int[] TOTALS;
+  private static final int[] HAND_VALUES;
+  private static final boolean[] SOFT;
+  private static final boolean[] BLACKJACK;
+  private static final boolean[] BUSTED;
+  private static final boolean[] DEALER_HITS_SOFT_17;
+  private static final boolean[] DEALER_HITS;
+
+  static {
+    Map<Integer, Integer> ids = new HashMap<>();
+    List<Integer> keys = new ArrayList<>();
+    List<int[]> transitions = new ArrayList<>();
+    int initial = key(0, false, EMPTY);
+    ids.put(initial, 0);
+    keys.add(initial);
+    for (int id = 0; id < keys.size(); id++) {
+      int key = keys.get(id);
+      int hard = key >> 3;
+      boolean ace = (key & 4) != 0;
+      int cards = key & 3;
+      int[] next = new int[NUM_RANKS];
+      for (int rank = 0; rank < NUM_RANKS; rank++) {
+        int nextKey = (hard > 21) ? key : canonical(hard + VALUES[rank], ace || rank == 0, cards);
+        Integer nextId = ids.get(nextKey);
+        if (nextId == null) {
+          nextId = keys.size();
+          ids.put(nextKey, nextId);
+          keys.add(nextKey);
+        }
+        next[rank] = nextId;
+      }
+      transitions.add(next);
+    }
+    int numStates = keys.size();
+    TRANSITIONS = new int[numStates * NUM_RANKS];
+    TOTALS = new int[numStates];
+    HAND_VALUES = new int[numStates];
+    SOFT = new boolean[numStates];
+    BLACKJACK = new boolean[numStates];
+    BUSTED = new boolean[numStates];
+    DEALER_HITS_SOFT_17 = new boolean[numStates];
+    DEALER_HITS = new boolean[numStates];
+    int id = 0;
+    for (int[] next : transitions) {
+      System.arraycopy(next, 0, TRANSITIONS, id * NUM_RANKS, NUM_RANKS);
+      id++;
+    }
+    id = 0;
+    for (int key : keys) {
+      int hard = key >> 3;
+      boolean ace = (key & 4) != 0;
+      int cards = key & 3;
+      boolean soft = ace && hard <= 11;
+      int total = soft ? hard + 10 : hard;
+      TOTALS[id] = total;
+      SOFT[id] = soft;
+      BUSTED[id] = total > 21;
+      BLACKJACK[id] = soft && total == 21 && cards == PAIR;
+      HAND_VALUES[id] = BUSTED[id] ? 0 : total;
+      DEALER_HITS[id] = total < 17;
+      DEALER_HITS_SOFT_17[id] = total < 17 || (total == 17 && soft);
+      id++;
+    }
+  }
+
+  private HandStateTable() {
+  }
+
+  /**
+   * Returns the state reached by drawing a card of the specified rank to a
+   * hand in the specified state.
+   *
+   * @param state   current state.
+   * @param rank    rank of the card drawn.
+   * @return        next state.
+   */
+  public static int next(int state, Rank rank) {
+    return TRANSITIONS[state * NUM_RANKS + rank.ordinal()];
+  }
+
+  /**
+   * Returns the state reached by drawing a card with the specified rank
+   * ordinal to a hand in the specified state.
+   *
+   * @param state         current state.
+   * @param rankOrdinal   {@link Rank#ordinal()} of the card drawn.
+   * @return              next state.
+   */
+  public static int next(int state, int rankOrdinal) {
+    return TRANSITIONS[state * NUM_RANKS + rankOrdinal];
+  }
+
+  /**
+   * Returns the point total of a hand in the specified state, counting a soft
+   * ace as 11 points. A busted hand's total exceeds 21.
+   *
+   * @param state   hand state.
+   * @return        point total.
+   */
+  public static int getTotal(int state) {
+    return TOTALS[state];
+  }
+
+  /**
+   * Returns the value of a hand in the specified state: the total, or 0 for a
+   * busted hand.
+   *
+   * @param state   hand state.
+   * @return        hand value.
+   */
+  public static int getValue(int state) {
+    return HAND_VALUES[state];
+  }
+
+  /**
+   * Returns a flag indicating whether the total of a hand in the specified
+   * state counts an ace as 11 points.
+   *
+   * @param state   hand state.
+   * @return        <code>true</code> if the total is soft.
+   */
+  public static boolean isSoft(int state) {
+    return SOFT[state];
+  }
+
+  /**
+   * Returns a flag indicating whether a hand in the specified state is a
+   * blackjack (an ace and a 10-point card, and no other cards).
+   *
+   * @param state   hand state.
+   * @return        <code>true</code> if the hand is a blackjack.
+   */
+  public static boolean isBlackjack(int state) {
+    return BLACKJACK[state];
+  }
+
+  /**
+   * Returns a flag indicating whether a hand in the specified state is busted.
+   *
+   * @param state   hand state.
+   * @return        <code>true</code> if the total exceeds 21.
+   */
+  public static boolean isBusted(int state) {
+    return BUSTED[state];
+  }
+
+  /**
+   * Returns a flag indicating whether a dealer must hit a hand in the
+   * specified state, according to the specified soft 17 rule.
+   *
+   * @param state         hand state.
+   * @param hitOnSoft17   flag indicating whether the dealer hits on a soft 17.
+   * @return              <code>true</code> if the dealer must hit.
+   */
+  public static boolean dealerHits(int state, boolean hitOnSoft17) {
+    return hitOnSoft17 ? DEALER_HITS_SOFT_17[state] : DEALER_HITS[state];
+  }
+
+  /**
+   * Returns the number of distinct states.
+   *
+   * @return  number of states.
+   */
+  public static int getNumStates() {
+    return TOTALS.length;
+  }
+
+  private static int canonical(int hard, boolean ace, int cards) {
+    int count;
+    if (cards == EMPTY) {
+      count = (ace || hard == 10) ? SINGLE : MANY;
+    } else if (cards == SINGLE) {
+      count = (ace && hard == 11) ? PAIR : MANY;
+    } else {
+      count = MANY;
+    }
+    return key(hard, ace, count);
+  }
+
+  private static int key(int hard, boolean ace, int cards) {
+    return (hard << 3) | (ace ? 4 : 0) | cards;
+  }
+
+}
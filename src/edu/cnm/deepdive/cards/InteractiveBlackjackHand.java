@@ -1,6 +1,7 @@
 package edu.cnm.deepdive.cards;
 
 import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+import edu.cnm.deepdive.cards.GameEvent.Type;
 import java.util.ResourceBundle;
 import java.util.Scanner;
 import java.util.regex.Pattern;
@@ -21,16 +22,16 @@ public class InteractiveBlackjackHand extends BlackjackHand {
   public static final String YES_INPUT_CHAR_KEY = "yes_input_char";
   public static final String NO_INPUT_CHAR_KEY = "no_input_char";
 
-  private static ResourceBundle bundle = ResourceBundle.getBundle(RESOURCE_BUNDLE);
-
   private Scanner scanner;
+  private OutputSink out;
   private boolean doubleDown;
 
 
 
   /**
    * Initializes this instance with the specified {@link Deck} of cards and
-   * {@link Scanner} for user input.
+   * {@link Scanner} for user input, writing output directly to {@link
+   * System#out}.
    *
    * @param deck                          source of cards for this instance.
    * @param scanner
@@ -39,15 +40,33 @@ public class InteractiveBlackjackHand extends BlackjackHand {
    */
   public InteractiveBlackjackHand(Deck deck, Scanner scanner)
       throws InsufficientCardsException {
+    this(deck, scanner, new OutputSink.Stream(System.out));
+  }
+
+  /**
+   * Initializes this instance with the specified {@link Deck} of cards, {@link
+   * Scanner} for user input, and {@link OutputSink} for output.
+   *
+   * @param deck                          source of cards for this instance.
+   * @param scanner                       source of user input.
+   * @param out                           destination of output; flushed
+   *                                      before each prompt for input.
+   * @throws InsufficientCardsException   if <code>deck</code> doesn't have at
+   *                                      least 2 undealt cards available.
+   */
+  public InteractiveBlackjackHand(Deck deck, Scanner scanner, OutputSink out)
+      throws InsufficientCardsException {
     super(deck);
     this.scanner = scanner;
+    this.out = out;
   }
 
   /**
-   * Interacts with the user, using {@link System#out} for output and a {@link
-   * Scanner} for input, allowing the user to make hit/stay decisions until play
-   * ends by the user staying, or the total of cards in the hand reaching or
-   * exceeding 21.
+   * Interacts with the user, using an {@link OutputSink} for output and a
+   * {@link Scanner} for input, allowing the user to make hit/stay decisions
+   * until play ends by the user staying, or the total of cards in the hand
+   * reaching or exceeding 21. Stand and double-down decisions are published
+   * to the {@link GameEventPublisher} attached to the {@link Deck}, if any.
    *
    * @throws InsufficientCardsException   in the event that the {@link Deck}
    *                                      specified in the constructor invocation
@@ -59,39 +78,49 @@ public class InteractiveBlackjackHand extends BlackjackHand {
     doubleDown = false;
     outerloop:
     while (getTotal() < 21 && !stay) {
-      System.out.printf(bundle.getString(CURRENT_HAND_PATTERN_KEY), this);
+      out.printf(bundle().getString(CURRENT_HAND_PATTERN_KEY), this);
       Boolean hit = null;
       while (hit == null) {
         if (9 <= getValue() && getValue() <= 11) {
-          System.out.println("Want to double down? [y/n] %n");
+          out.println("Want to double down? [y/n] %n");
+          out.flush();
           while (!scanner.hasNext(NON_WHITE_SPACE)) {}
           char input = scanner.next(NON_WHITE_SPACE).toLowerCase().charAt(0);
-          if (input == bundle.getString(YES_INPUT_CHAR_KEY).charAt(0)) {
+          if (input == bundle().getString(YES_INPUT_CHAR_KEY).charAt(0)) {
             hit = true;
+            publish(Type.DOUBLE, null, 0);
             hit();
             doubleDown = true;
             break outerloop;
           }
         }
-        System.out.print(bundle.getString(ACTION_PROMPT_PATTERN_KEY));
+        out.print(bundle().getString(ACTION_PROMPT_PATTERN_KEY));
+        out.flush();
         while (!scanner.hasNext(NON_WHITE_SPACE)) {}
         char input = scanner.next(NON_WHITE_SPACE).toLowerCase().charAt(0);
-        if (input == bundle.getString(YES_INPUT_CHAR_KEY).charAt(0)) {
+        if (input == bundle().getString(YES_INPUT_CHAR_KEY).charAt(0)) {
           hit = true;
           hit();
-        } else if (input == bundle.getString(NO_INPUT_CHAR_KEY).charAt(0)) {
+        } else if (input == bundle().getString(NO_INPUT_CHAR_KEY).charAt(0)) {
           hit = false;
           stay = true;
+          publish(Type.STAND, null, 0);
         }
         scanner.nextLine();
       }
     }
     if (!stay) {
-      System.out.printf(bundle.getString(FINAL_HAND_PATTERN_KEY), this);
+      out.printf(bundle().getString(FINAL_HAND_PATTERN_KEY), this);
     }
+    out.flush();
   }
 
   public boolean isDoubleDown() {
     return doubleDown;
   }
+
+  private static ResourceBundle bundle() {
+    return Bundles.get(RESOURCE_BUNDLE);
+  }
+
 }
@@ -0,0 +1,234 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-capacity, <code>long</code>-indexed byte store held outside the Java
+ * heap, for large simulation data (e.g. per-round outcomes and shoe orders,
+ * recorded by {@link BlackjackSimulation}). Storage is either direct memory
+ * ({@link #allocate(long)}) or a memory-mapped file ({@link #map(Path, long)}),
+ * which lets the operating system spill the data to disk as needed. Since a
+ * single {@link ByteBuffer} is limited to 2 GB, storage is split into
+ * segments of {@link #SEGMENT_SIZE} bytes.
+ * <p>Instances must be closed when no longer needed. Closing a mapped buffer
+ * flushes it to its file and closes the file; closing a buffer of either kind
+ * drops its references to its segments. Note that the Java SE API has no way
+ * to free direct memory or unmap a file explicitly: the memory (or mapping)
+ * behind a segment is released only when the garbage collector reclaims the
+ * segment, which may be long after {@link #close()} returns, or never, if the
+ * heap sees little allocation. Direct memory counts against the
+ * <code>-XX:MaxDirectMemorySize</code> limit until then, so applications that
+ * repeatedly allocate large buffers should size that limit accordingly, or
+ * reuse buffers. Any further use of a closed instance throws {@link
+ * IllegalStateException}.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class OffHeapBuffer implements Closeable {
+
+  /** Number of bytes in each segment. */
+  public static final int SEGMENT_SIZE = 1 << 30;
+
+  private static final int SEGMENT_SHIFT = Integer.numberOfTrailingZeros(SEGMENT_SIZE);
+  private static final int OFFSET_MASK = SEGMENT_SIZE - 1;
+
+  private final long capacity;
+  private final FileChannel channel;
+  private ByteBuffer[] segments;
+  private long size;
+
+  private OffHeapBuffer(long capacity, FileChannel channel, ByteBuffer[] segments) {
+    this.capacity = capacity;
+    this.channel = channel;
+    this.segments = segments;
+  }
+
+  /**
+   * Creates an instance backed by direct (off-heap) memory.
+   *
+   * @param capacity  number of bytes that can be stored.
+   * @return          new buffer.
+   */
+  public static OffHeapBuffer allocate(long capacity) {
+    ByteBuffer[] segments = new ByteBuffer[numSegments(capacity)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = ByteBuffer.allocateDirect(segmentSize(capacity, i));
+    }
+    return new OffHeapBuffer(capacity, null, segments);
+  }
+
+  /**
+   * Creates an instance backed by a memory-mapped file, which is created (or
+   * extended) as necessary. Any data already in the file is accessible through
+   * {@link #get(long)}, but {@link #size()} starts at 0.
+   *
+   * @param file          file to be mapped.
+   * @param capacity      number of bytes that can be stored.
+   * @return              new buffer.
+   * @throws IOException  if the file can't be opened or mapped.
+   */
+  public static OffHeapBuffer map(Path file, long capacity) throws IOException {
+    FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      ByteBuffer[] segments = new ByteBuffer[numSegments(capacity)];
+      for (int i = 0; i < segments.length; i++) {
+        segments[i] = channel.map(MapMode.READ_WRITE, (long) i * SEGMENT_SIZE,
+            segmentSize(capacity, i));
+      }
+      return new OffHeapBuffer(capacity, channel, segments);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens an existing file written through a buffer returned by {@link
+   * #map(Path, long)}, with {@link #size()} set to the length of the file.
+   *
+   * @param file          file to be mapped.
+   * @return              buffer containing the contents of the file.
+   * @throws IOException  if the file can't be opened or mapped.
+   */
+  public static OffHeapBuffer open(Path file) throws IOException {
+    OffHeapBuffer buffer = map(file, Files.size(file));
+    buffer.size = buffer.capacity;
+    return buffer;
+  }
+
+  /**
+   * Appends a single byte at position {@link #size()}, and increments the size.
+   *
+   * @param value                     byte to append.
+   * @throws BufferOverflowException  if the buffer is full.
+   * @throws IllegalStateException    if this instance has been closed.
+   */
+  public void append(byte value) {
+    ByteBuffer[] segments = segments();
+    if (size == capacity) {
+      throw new BufferOverflowException();
+    }
+    segments[(int) (size >>> SEGMENT_SHIFT)].put((int) (size & OFFSET_MASK), value);
+    size++;
+  }
+
+  /**
+   * Stores a byte at the specified index.
+   *
+   * @param index                   position in the buffer.
+   * @param value                   byte to store.
+   * @throws IllegalStateException  if this instance has been closed.
+   */
+  public void put(long index, byte value) {
+    segments()[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & OFFSET_MASK), value);
+  }
+
+  /**
+   * Returns the byte at the specified index.
+   *
+   * @param index                   position in the buffer.
+   * @return                        byte at <code>index</code>.
+   * @throws IllegalStateException  if this instance has been closed.
+   */
+  public byte get(long index) {
+    return segments()[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & OFFSET_MASK));
+  }
+
+  /**
+   * Copies bytes starting at the specified index into an array. This method
+   * doesn't modify the state of this instance, so it may be used by several
+   * threads concurrently.
+   *
+   * @param index                   position in the buffer of the first byte
+   *                                to copy.
+   * @param destination             array into which bytes are copied.
+   * @param offset                  index in <code>destination</code> of the
+   *                                first byte.
+   * @param length                  number of bytes to copy.
+   * @throws IllegalStateException  if this instance has been closed.
+   */
+  public void get(long index, byte[] destination, int offset, int length) {
+    ByteBuffer[] segments = segments();
+    while (length > 0) {
+      int position = (int) (index & OFFSET_MASK);
+      int count = Math.min(length, SEGMENT_SIZE - position);
+      segments[(int) (index >>> SEGMENT_SHIFT)].duplicate()
+          .position(position)
+          .get(destination, offset, count);
+      index += count;
+      offset += count;
+      length -= count;
+    }
+  }
+
+  /**
+   * Returns the number of bytes appended with {@link #append(byte)}.
+   *
+   * @return  number of bytes appended.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes this instance can hold.
+   *
+   * @return  capacity in bytes.
+   */
+  public long capacity() {
+    return capacity;
+  }
+
+  /**
+   * Writes any changes to a memory-mapped buffer to its file; for a buffer
+   * backed by direct memory, this method has no effect.
+   *
+   * @throws IllegalStateException  if this instance has been closed.
+   */
+  public void force() {
+    ByteBuffer[] segments = segments();
+    if (channel != null) {
+      for (ByteBuffer segment : segments) {
+        ((MappedByteBuffer) segment).force();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (segments != null) {
+      force();
+      segments = null;
+      if (channel != null) {
+        channel.close();
+      }
+    }
+  }
+
+  private ByteBuffer[] segments() {
+    ByteBuffer[] segments = this.segments;
+    if (segments == null) {
+      throw new IllegalStateException("Buffer has been closed.");
+    }
+    return segments;
+  }
+
+  private static int numSegments(long capacity) {
+    return (int) ((capacity + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+  }
+
+  private static int segmentSize(long capacity, int segment) {
+    return (int) Math.min(SEGMENT_SIZE, capacity - (long) segment * SEGMENT_SIZE);
+  }
+
+}
@@ -0,0 +1,284 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Destination for the text produced by a game session (prompts, hands, and
+ * results). Text written to a sink isn't guaranteed to appear until {@link
+ * #flush()} is invoked; game code flushes at prompt boundaries, i.e. just
+ * before waiting for user input. Sinks are usually composed: each session
+ * writes to its own {@link Buffered} sink, which coalesces the text of a
+ * prompt cycle into a single write to a shared {@link Stream} sink, optionally
+ * through an {@link Async} sink, which moves the console I/O to a background
+ * thread.
+ * <p>Closing a sink flushes it and releases any resources of its own; it
+ * doesn't close the sink or stream that it wraps, which may be shared.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public interface OutputSink extends AutoCloseable {
+
+  /**
+   * Writes the specified text.
+   *
+   * @param text  text to write.
+   */
+  void print(String text);
+
+  /**
+   * Writes the text produced by formatting the specified arguments with the
+   * specified {@link java.util.Formatter} pattern.
+   *
+   * @param format  format pattern.
+   * @param args    values to format.
+   */
+  default void printf(String format, Object... args) {
+    print(String.format(format, args));
+  }
+
+  /**
+   * Writes the string representation of the specified object, followed by a
+   * line separator.
+   *
+   * @param value   object to write.
+   */
+  default void println(Object value) {
+    print(value + System.lineSeparator());
+  }
+
+  /**
+   * Causes all text written so far to be passed along to its final
+   * destination.
+   */
+  void flush();
+
+  @Override
+  default void close() {
+    flush();
+  }
+
+  /**
+   * Sink that writes to an {@link OutputStream} (typically {@link System#out})
+   * through a {@link BufferedWriter}, so that the stream is only written to and
+   * flushed on {@link #flush()}, or when the buffer fills. Methods are
+   * synchronized, so that an instance can be shared by several sessions.
+   */
+  class Stream implements OutputSink {
+
+    private final Writer writer;
+
+    /**
+     * Initializes this instance to write to the specified stream, using the
+     * default charset.
+     *
+     * @param out   destination stream.
+     */
+    public Stream(OutputStream out) {
+      this(out, Charset.defaultCharset());
+    }
+
+    /**
+     * Initializes this instance to write to the specified stream, using the
+     * specified charset.
+     *
+     * @param out       destination stream.
+     * @param charset   charset used to encode text.
+     */
+    public Stream(OutputStream out, Charset charset) {
+      writer = new BufferedWriter(new OutputStreamWriter(out, charset));
+    }
+
+    @Override
+    public synchronized void print(String text) {
+      try {
+        writer.write(text);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public synchronized void flush() {
+      try {
+        writer.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+  }
+
+  /**
+   * Per-session sink that accumulates text in memory, and passes it to the
+   * wrapped sink as a single write (followed by a flush) on {@link #flush()}.
+   * Instances aren't thread-safe; each session should use its own.
+   */
+  class Buffered implements OutputSink {
+
+    private final OutputSink downstream;
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * Initializes this instance to pass text to the specified sink.
+     *
+     * @param downstream  sink to which coalesced text is written.
+     */
+    public Buffered(OutputSink downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void print(String text) {
+      buffer.append(text);
+    }
+
+    @Override
+    public void flush() {
+      if (buffer.length() > 0) {
+        downstream.print(buffer.toString());
+        buffer.setLength(0);
+      }
+      downstream.flush();
+    }
+
+  }
+
+  /**
+   * Sink that hands text off through a bounded queue to a background writer
+   * thread, which writes it to the wrapped sink, flushing that sink whenever
+   * the queue is emptied. Game threads therefore never wait on console I/O,
+   * unless the queue is full (in which case {@link #print(String)} waits for
+   * room). Any number of threads may write to an instance, without blocking
+   * one another except on a full queue; {@link #flush()} returns immediately,
+   * since all text is flushed by the writer thread as soon as it catches up.
+   * {@link #close()} rejects any further writes, waits for writes already in
+   * progress to be queued and for all queued text to be written, then stops
+   * the writer thread. Thus, any {@link #print(String)} that returns normally
+   * is written, unless the wrapped sink fails; after such a failure, the
+   * writer thread stops, and every subsequent write fails.
+   */
+  class Async implements OutputSink {
+
+    private static final String CLOSED = new String();
+    private static final long POLL_INTERVAL = 100;
+    private static final int CLOSED_FLAG = Integer.MIN_VALUE;
+
+    private final OutputSink downstream;
+    private final BlockingQueue<String> queue;
+    private final Thread writer;
+    // Number of prints in progress, with CLOSED_FLAG set once close() begins.
+    private final AtomicInteger state = new AtomicInteger();
+    private volatile RuntimeException failure;
+
+    /**
+     * Initializes this instance and starts its writer thread.
+     *
+     * @param downstream  sink to which the writer thread writes.
+     * @param capacity    maximum number of writes waiting in the queue.
+     */
+    public Async(OutputSink downstream, int capacity) {
+      this.downstream = downstream;
+      queue = new ArrayBlockingQueue<>(capacity);
+      writer = new Thread(this::drain, "output-sink");
+      writer.setDaemon(true);
+      writer.start();
+    }
+
+    /**
+     * Places the specified text in the queue, waiting if necessary for room.
+     * If the calling thread is interrupted while waiting, the text is
+     * discarded, and the interrupt status of the thread is set.
+     *
+     * @param text                    text to write.
+     * @throws IllegalStateException  if this instance has been closed, or if
+     *                                the writer thread has stopped because
+     *                                the wrapped sink failed.
+     */
+    @Override
+    public void print(String text) {
+      int current;
+      do {
+        current = state.get();
+        if (current < 0) {
+          throw new IllegalStateException();
+        }
+      } while (!state.compareAndSet(current, current + 1));
+      try {
+        do {
+          checkWriter();
+        } while (!queue.offer(text, POLL_INTERVAL, TimeUnit.MILLISECONDS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        if (state.decrementAndGet() == CLOSED_FLAG) {
+          synchronized (this) {
+            notifyAll();
+          }
+        }
+      }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+      boolean first = state.getAndUpdate((current) -> current | CLOSED_FLAG) >= 0;
+      try {
+        synchronized (this) {
+          while (state.get() != CLOSED_FLAG) {
+            wait();
+          }
+        }
+        if (first) {
+          while (writer.isAlive() && !queue.offer(CLOSED, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+            // Wait for room, unless the writer thread has stopped.
+          }
+        }
+        writer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void checkWriter() {
+      if (!writer.isAlive()) {
+        throw new IllegalStateException(failure);
+      }
+    }
+
+    private void drain() {
+      try {
+        try {
+          for (String text = queue.take(); text != CLOSED; ) {
+            downstream.print(text);
+            text = queue.poll();
+            if (text == null) {
+              downstream.flush();
+              text = queue.take();
+            }
+          }
+        } finally {
+          downstream.flush();
+        }
+      } catch (InterruptedException e) {
+        // Writer thread has been stopped.
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,217 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the all-in equity of 2 or more Texas Hold'em hands, given their
+ * hole cards and any community cards already dealt. The remaining community
+ * cards are either enumerated exhaustively ({@link #enumerate()}) or sampled
+ * at random ({@link #sample(long, long)}) from the cards not yet dealt, and
+ * each hand is evaluated with {@link PokerHandEvaluator}; a pot that is won by
+ * several hands is split equally among them. The work is divided into
+ * independent parts that are processed in parallel.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class PokerEquityCalculator {
+
+  /** Number of community cards in a complete board. */
+  public static final int BOARD_SIZE = 5;
+
+  private static final int HOLE_SIZE = 2;
+  private static final int HAND_SIZE = HOLE_SIZE + BOARD_SIZE;
+  private static final int TRIALS_PER_BLOCK = 10_000;
+
+  private final int[][] holeCards;
+  private final int[] board;
+  private final int[] remaining;
+
+  /**
+   * Initializes this instance with the specified hole cards and community
+   * cards.
+   *
+   * @param holeCards                   2 cards for each of 2 or more hands.
+   * @param board                       community cards already dealt (0 to
+   *                                    5).
+   * @throws IllegalArgumentException   if there are fewer than 2 hands, a
+   *                                    hand doesn't have exactly 2 cards,
+   *                                    there are more than 5 community cards,
+   *                                    or any card appears more than once.
+   */
+  public PokerEquityCalculator(Card[][] holeCards, Card... board) {
+    if (holeCards.length < 2 || board.length > BOARD_SIZE) {
+      throw new IllegalArgumentException();
+    }
+    boolean[] used = new boolean[Card.NUM_CODES];
+    this.holeCards = new int[holeCards.length][];
+    for (int i = 0; i < holeCards.length; i++) {
+      if (holeCards[i].length != HOLE_SIZE) {
+        throw new IllegalArgumentException();
+      }
+      this.holeCards[i] = encode(holeCards[i], used);
+    }
+    this.board = encode(board, used);
+    int numRemaining = 0;
+    for (boolean u : used) {
+      numRemaining += u ? 0 : 1;
+    }
+    remaining = new int[numRemaining];
+    for (int code = 0, i = 0; code < Card.NUM_CODES; code++) {
+      if (!used[code]) {
+        remaining[i++] = PokerHandEvaluator.encode(Card.fromCode(code));
+      }
+    }
+  }
+
+  /**
+   * Computes the exact equity of each hand, by enumerating every possible
+   * completion of the board.
+   *
+   * @return  share of the pot won by each hand, on average.
+   */
+  public double[] enumerate() {
+    int missing = BOARD_SIZE - board.length;
+    if (missing == 0) {
+      double[] shares = new double[holeCards.length];
+      award(newHands(), new int[holeCards.length], shares);
+      return shares;
+    }
+    double[] shares = IntStream.range(0, remaining.length - missing + 1)
+        .parallel()
+        .mapToObj((first) -> {
+          int[][] hands = newHands();
+          double[] partial = new double[holeCards.length];
+          deal(hands, board.length, remaining[first]);
+          enumerate(hands, new int[hands.length], board.length + 1, first + 1, partial);
+          return partial;
+        })
+        .reduce(new double[holeCards.length], PokerEquityCalculator::sum);
+    return normalize(shares);
+  }
+
+  /**
+   * Estimates the equity of each hand, by completing the board at random the
+   * specified number of times. The results are fully determined by
+   * <code>seed</code>, regardless of the degree of parallelism.
+   *
+   * @param trials                      number of random boards.
+   * @param seed                        seed for random number generation.
+   * @return                            estimated share of the pot won by each
+   *                                    hand, on average.
+   * @throws IllegalArgumentException   if <code>trials</code> is not positive.
+   */
+  public double[] sample(long trials, long seed) {
+    if (trials <= 0) {
+      throw new IllegalArgumentException();
+    }
+    int blocks = (int) ((trials + TRIALS_PER_BLOCK - 1) / TRIALS_PER_BLOCK);
+    double[] shares = IntStream.range(0, blocks)
+        .parallel()
+        .mapToObj((block) -> {
+          long size = Math.min(TRIALS_PER_BLOCK, trials - (long) block * TRIALS_PER_BLOCK);
+          return sample(size, new SplittableRandom(seed + block));
+        })
+        .reduce(new double[holeCards.length], PokerEquityCalculator::sum);
+    return normalize(shares);
+  }
+
+  private double[] sample(long trials, SplittableRandom rng) {
+    int[][] hands = newHands();
+    double[] shares = new double[holeCards.length];
+    int[] values = new int[holeCards.length];
+    int[] cards = remaining.clone();
+    for (long trial = 0; trial < trials; trial++) {
+      for (int i = 0, position = board.length; position < BOARD_SIZE; i++, position++) {
+        int j = i + rng.nextInt(cards.length - i);
+        int card = cards[j];
+        cards[j] = cards[i];
+        cards[i] = card;
+        deal(hands, position, card);
+      }
+      award(hands, values, shares);
+    }
+    return shares;
+  }
+
+  private void enumerate(int[][] hands, int[] values, int position, int start,
+      double[] shares) {
+    if (position == BOARD_SIZE) {
+      award(hands, values, shares);
+    } else {
+      for (int i = start; i <= remaining.length - (BOARD_SIZE - position); i++) {
+        deal(hands, position, remaining[i]);
+        enumerate(hands, values, position + 1, i + 1, shares);
+      }
+    }
+  }
+
+  private int[][] newHands() {
+    int[][] hands = new int[holeCards.length][HAND_SIZE];
+    for (int[] hand : hands) {
+      System.arraycopy(board, 0, hand, HOLE_SIZE, board.length);
+    }
+    for (int i = 0; i < hands.length; i++) {
+      System.arraycopy(holeCards[i], 0, hands[i], 0, HOLE_SIZE);
+    }
+    return hands;
+  }
+
+  private static void deal(int[][] hands, int position, int card) {
+    for (int[] hand : hands) {
+      hand[HOLE_SIZE + position] = card;
+    }
+  }
+
+  private static void award(int[][] hands, int[] values, double[] shares) {
+    int best = Integer.MAX_VALUE;
+    int winners = 0;
+    for (int i = 0; i < hands.length; i++) {
+      values[i] = PokerHandEvaluator.evaluate(hands[i]);
+      if (values[i] < best) {
+        best = values[i];
+        winners = 1;
+      } else if (values[i] == best) {
+        winners++;
+      }
+    }
+    for (int i = 0; i < hands.length; i++) {
+      if (values[i] == best) {
+        shares[i] += 1.0 / winners;
+      }
+    }
+  }
+
+  private static int[] encode(Card[] cards, boolean[] used) {
+    int[] encoded = new int[cards.length];
+    for (int i = 0; i < cards.length; i++) {
+      int code = cards[i].getCode();
+      if (used[code]) {
+        throw new IllegalArgumentException();
+      }
+      used[code] = true;
+      encoded[i] = PokerHandEvaluator.encode(cards[i]);
+    }
+    return encoded;
+  }
+
+  private static double[] sum(double[] a, double[] b) {
+    double[] sum = new double[a.length];
+    for (int i = 0; i < sum.length; i++) {
+      sum[i] = a[i] + b[i];
+    }
+    return sum;
+  }
+
+  private static double[] normalize(double[] shares) {
+    double total = 0;
+    for (double share : shares) {
+      total += share;
+    }
+    for (int i = 0; i < shares.length; i++) {
+      shares[i] /= total;
+    }
+    return shares;
+  }
+
+}
@@ -0,0 +1,562 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.Arrays;
+
+/**
+ * Lookup-table evaluator for poker hands of 5 to 7 cards, following the
+ * "Cactus Kev" scheme. Each card is encoded as an <code>int</code> (see
+ * {@link #encode(Card)}) holding a bit for its rank, a bit for its suit, its
+ * rank index, and a distinct prime number for its rank. A 5-card hand is
+ * then evaluated by at most a bitwise test, two table lookups, and (only for
+ * hands containing a pair) a hash lookup of the product of the primes:
+ * <ul>
+ *   <li>if all 5 cards share a suit, the OR of the rank bits indexes the
+ *   table of flushes (including straight flushes);</li>
+ *   <li>otherwise, if the 5 ranks are distinct, the same bits index the table
+ *   of straights and high-card hands;</li>
+ *   <li>otherwise, the product of the primes identifies the multiset of ranks,
+ *   and is looked up in an open-addressing hash table, which is sparse enough
+ *   that almost every lookup takes a single probe.</li>
+ * </ul>
+ * <p>Hands of 6 or 7 cards are evaluated directly, rather than as the best
+ * of their 5-card subsets. Each card is mapped (by a lookup on its rank and
+ * suit bits) to a <code>long</code> key, with a 4-bit count field for its suit
+ * and a 3-bit count field for its rank; since no field can overflow, the sum
+ * of the keys of a hand holds its suit counts and its rank multiset. A suit
+ * count of 5 or more (detected with one addition and one mask) means that the
+ * best hand is a flush, whose value is read from the table of flushes by the
+ * OR of the rank bits of the cards of that suit. Otherwise, the value
+ * depends only on the rank multiset, which indexes a table of the best value
+ * for each of the 67,600 multisets of 6 or 7 ranks, through a perfect hash:
+ * the multiset selects a bucket, whose precomputed displacement is mixed into
+ * a second hash, chosen so that no 2 multisets share a slot.</p>
+ * <p>All tables are generated when this class is initialized. The value of a
+ * hand is its equivalence class, from 1 (a royal flush) to 7462 (7-5-4-3-2 of
+ * mixed suits); lower values are better, and hands with equal values
+ * tie.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public final class PokerHandEvaluator {
+
+  /** Value of the worst possible hand. */
+  public static final int WORST_VALUE = 7462;
+
+  private static final int NUM_RANKS = 13;
+  private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41};
+  private static final int[] STRAIGHTS = new int[10];
+  private static final int[] CARD_ENCODINGS = new int[Card.NUM_CODES];
+  private static final short[] FLUSHES = new short[1 << NUM_RANKS];
+  private static final short[] UNIQUE_5 = new short[1 << NUM_RANKS];
+  private static final int HASH_BITS = 15;
+  private static final int HASH_MASK = (1 << HASH_BITS) - 1;
+  private static final int HASH_MULTIPLIER = 0x9e3779b1;
+  private static final int[] PRODUCTS = new int[1 << HASH_BITS];
+  private static final short[] PRODUCT_VALUES = new short[1 << HASH_BITS];
+  private static final int SUIT_SHIFT = 16;
+  private static final long SUIT_FIELD_BIAS = 0x3333;
+  private static final long SUIT_FIELD_OVERFLOW = 0x8888;
+  private static final long RANK_FIELD_LOW = 0x36db6db6dbL << SUIT_SHIFT;
+  private static final long RANK_FIELD_HIGH = 0x4924924924L << SUIT_SHIFT;
+  private static final long INVALID_CARD = 1L << 56;
+  private static final long[] CARD_KEYS = new long[1 << 8];
+  private static final int BUCKET_BITS = 15;
+  private static final int SLOT_BITS = 17;
+  private static final long BUCKET_MULTIPLIER = 0x9e3779b97f4a7c15L;
+  private static final long SLOT_MULTIPLIER = 0xc2b2ae3d27d4eb4fL;
+  private static final char[] DISPLACEMENTS = new char[1 << BUCKET_BITS];
+  private static final short[] RANK_VALUES = new short[1 << SLOT_BITS];
+
+  /**
+   * Categories of poker hands, from best to worst.
+   */
+  public enum Category {
+
+    STRAIGHT_FLUSH(10),
+    FOUR_OF_A_KIND(166),
+    FULL_HOUSE(322),
+    FLUSH(1599),
+    STRAIGHT(1609),
+    THREE_OF_A_KIND(2467),
+    TWO_PAIR(3325),
+    ONE_PAIR(6185),
+    HIGH_CARD(WORST_VALUE);
+
+    private final int worstValue;
+
+    Category(int worstValue) {
+      this.worstValue = worstValue;
+    }
+
+  }
+
+  static {
+    for (int code = 0; code < Card.NUM_CODES; code++) {
+      Card card = Card.fromCode(code);
+      int rank = (card.getRank().ordinal() + NUM_RANKS - 1) % NUM_RANKS;
+      CARD_ENCODINGS[code] = (1 << (16 + rank)) | (1 << (12 + card.getSuit().ordinal()))
+          | (rank << 8) | PRIMES[rank];
+    }
+    for (int top = NUM_RANKS - 1; top >= 4; top--) {
+      STRAIGHTS[NUM_RANKS - 1 - top] = 0x1f << (top - 4);
+    }
+    STRAIGHTS[STRAIGHTS.length - 1] = 0x100f;
+    int[] distinct = new int[1287];
+    int numDistinct = 0;
+    for (int a = NUM_RANKS - 1; a >= 4; a--) {
+      for (int b = a - 1; b >= 3; b--) {
+        for (int c = b - 1; c >= 2; c--) {
+          for (int d = c - 1; d >= 1; d--) {
+            for (int e = d - 1; e >= 0; e--) {
+              distinct[numDistinct++] = (1 << a) | (1 << b) | (1 << c) | (1 << d) | (1 << e);
+            }
+          }
+        }
+      }
+    }
+    int value = 1;
+    for (int straight : STRAIGHTS) {
+      FLUSHES[straight] = (short) value++;
+    }
+    for (int quad = NUM_RANKS - 1; quad >= 0; quad--) {
+      for (int kicker = NUM_RANKS - 1; kicker >= 0; kicker--) {
+        if (kicker != quad) {
+          put(power(quad, 4) * PRIMES[kicker], value++);
+        }
+      }
+    }
+    for (int trips = NUM_RANKS - 1; trips >= 0; trips--) {
+      for (int pair = NUM_RANKS - 1; pair >= 0; pair--) {
+        if (pair != trips) {
+          put(power(trips, 3) * power(pair, 2), value++);
+        }
+      }
+    }
+    for (int i = 0; i < numDistinct; i++) {
+      if (!isStraight(distinct[i])) {
+        FLUSHES[distinct[i]] = (short) value++;
+      }
+    }
+    for (int straight : STRAIGHTS) {
+      UNIQUE_5[straight] = (short) value++;
+    }
+    for (int trips = NUM_RANKS - 1; trips >= 0; trips--) {
+      for (int high = NUM_RANKS - 1; high >= 0; high--) {
+        for (int low = high - 1; low >= 0; low--) {
+          if (high != trips && low != trips) {
+            put(power(trips, 3) * PRIMES[high] * PRIMES[low], value++);
+          }
+        }
+      }
+    }
+    for (int high = NUM_RANKS - 1; high >= 0; high--) {
+      for (int low = high - 1; low >= 0; low--) {
+        for (int kicker = NUM_RANKS - 1; kicker >= 0; kicker--) {
+          if (kicker != high && kicker != low) {
+            put(power(high, 2) * power(low, 2) * PRIMES[kicker], value++);
+          }
+        }
+      }
+    }
+    for (int pair = NUM_RANKS - 1; pair >= 0; pair--) {
+      for (int a = NUM_RANKS - 1; a >= 0; a--) {
+        for (int b = a - 1; b >= 0; b--) {
+          for (int c = b - 1; c >= 0; c--) {
+            if (a != pair && b != pair && c != pair) {
+              put(power(pair, 2) * PRIMES[a] * PRIMES[b] * PRIMES[c], value++);
+            }
+          }
+        }
+      }
+    }
+    for (int i = 0; i < numDistinct; i++) {
+      if (!isStraight(distinct[i])) {
+        UNIQUE_5[distinct[i]] = (short) value++;
+      }
+    }
+    for (int ranks = 0; ranks < FLUSHES.length; ranks++) {
+      // Masks are visited in increasing order, so each subset is already done.
+      if (Integer.bitCount(ranks) == 6 || Integer.bitCount(ranks) == 7) {
+        int best = WORST_VALUE;
+        for (int bits = ranks; bits != 0; bits &= bits - 1) {
+          best = Math.min(best, FLUSHES[ranks & ~Integer.lowestOneBit(bits)]);
+        }
+        FLUSHES[ranks] = (short) best;
+      }
+    }
+    Arrays.fill(CARD_KEYS, INVALID_CARD);
+    for (int code = 0; code < Card.NUM_CODES; code++) {
+      int card = CARD_ENCODINGS[code];
+      int rank = (card >>> 8) & 0xf;
+      int suit = Integer.numberOfTrailingZeros(card >>> 12);
+      CARD_KEYS[(card >>> 8) & 0xff] = (1L << (SUIT_SHIFT + 3 * rank)) | (1L << (4 * suit));
+    }
+    buildRankTable();
+  }
+
+  private PokerHandEvaluator() {
+  }
+
+  /**
+   * Returns the <code>int</code> encoding of the specified card used by this
+   * class: bits 16&ndash;28 hold a bit for the rank (deuce low, ace high),
+   * bits 12&ndash;15 a bit for the suit, bits 8&ndash;11 the rank index
+   * (0&ndash;12), and bits 0&ndash;5 the prime number assigned to the rank.
+   *
+   * @param card  card to encode.
+   * @return      encoded card.
+   */
+  public static int encode(Card card) {
+    return CARD_ENCODINGS[card.getCode()];
+  }
+
+  /**
+   * Returns the <code>int</code> encodings of the specified cards.
+   *
+   * @param cards   cards to encode.
+   * @return        encoded cards.
+   * @see           #encode(Card)
+   */
+  public static int[] encode(Card... cards) {
+    int[] encoded = new int[cards.length];
+    for (int i = 0; i < cards.length; i++) {
+      encoded[i] = encode(cards[i]);
+    }
+    return encoded;
+  }
+
+  /**
+   * Returns the value of the 5-card hand consisting of the specified encoded
+   * cards.
+   *
+   * @param c1                          first card.
+   * @param c2                          second card.
+   * @param c3                          third card.
+   * @param c4                          fourth card.
+   * @param c5                          fifth card.
+   * @return                            hand value, from 1 (best) to {@link
+   *                                    #WORST_VALUE}.
+   * @throws IllegalArgumentException   if the cards can't form a hand (e.g.
+   *                                    5 cards of the same rank). Not every
+   *                                    invalid combination is detected: a
+   *                                    card that appears twice may be
+   *                                    evaluated as a pair.
+   */
+  public static int evaluate(int c1, int c2, int c3, int c4, int c5) {
+    int ranks = (c1 | c2 | c3 | c4 | c5) >>> 16;
+    int value;
+    if ((c1 & c2 & c3 & c4 & c5 & 0xf000) != 0) {
+      value = (Integer.bitCount(ranks) == 5) ? FLUSHES[ranks] : 0;
+    } else if ((value = UNIQUE_5[ranks]) == 0) {
+      int product = (c1 & 0xff) * (c2 & 0xff) * (c3 & 0xff) * (c4 & 0xff) * (c5 & 0xff);
+      int slot = hash(product);
+      for (int probe; (probe = PRODUCTS[slot]) != product; slot = (slot + 1) & HASH_MASK) {
+        if (probe == 0) {
+          throw new IllegalArgumentException();
+        }
+      }
+      value = PRODUCT_VALUES[slot];
+    }
+    if (value == 0) {
+      throw new IllegalArgumentException();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the value of the best 5-card hand that can be made from the
+   * specified encoded cards.
+   *
+   * @param cards                       5, 6, or 7 encoded cards.
+   * @return                            hand value, from 1 (best) to {@link
+   *                                    #WORST_VALUE}.
+   * @throws IllegalArgumentException   if the number of cards is not in the
+   *                                    range 5&ndash;7, or the cards can't
+   *                                    form a hand (e.g. 5 cards of the same
+   *                                    rank). Not every invalid combination
+   *                                    is detected: a card that appears twice
+   *                                    may be evaluated as a pair.
+   */
+  public static int evaluate(int... cards) {
+    if (cards.length == 5) {
+      return evaluate(cards[0], cards[1], cards[2], cards[3], cards[4]);
+    }
+    if (cards.length < 5 || cards.length > 7) {
+      throw new IllegalArgumentException();
+    }
+    long key = 0;
+    for (int card : cards) {
+      key += CARD_KEYS[(card >>> 8) & 0xff];
+    }
+    long low = key & RANK_FIELD_LOW;
+    // Rejects invalid encodings, and more than 4 cards of any rank.
+    if (key >= INVALID_CARD || (key & RANK_FIELD_HIGH & (low << 1 | low << 2)) != 0) {
+      throw new IllegalArgumentException();
+    }
+    int flush = (int) ((key + SUIT_FIELD_BIAS) & SUIT_FIELD_OVERFLOW);
+    int value;
+    if (flush != 0) {
+      int suit = 0x1000 << (Integer.numberOfTrailingZeros(flush) >>> 2);
+      int ranks = 0;
+      for (int card : cards) {
+        ranks |= ((card & suit) != 0) ? card : 0;
+      }
+      value = FLUSHES[(ranks >>> 16) & (FLUSHES.length - 1)];
+    } else {
+      value = RANK_VALUES[slot(key >>> SUIT_SHIFT)];
+    }
+    if (value == 0) {
+      throw new IllegalArgumentException();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the category of a hand with the specified value.
+   *
+   * @param value   hand value, as returned by {@link #evaluate(int...)}.
+   * @return        hand category.
+   */
+  public static Category category(int value) {
+    for (Category category : Category.values()) {
+      if (value <= category.worstValue) {
+        return category;
+      }
+    }
+    throw new IllegalArgumentException();
+  }
+
+  private static void put(int product, int value) {
+    int slot = hash(product);
+    while (PRODUCTS[slot] != 0) {
+      slot = (slot + 1) & HASH_MASK;
+    }
+    PRODUCTS[slot] = product;
+    PRODUCT_VALUES[slot] = (short) value;
+  }
+
+  private static int hash(int product) {
+    return (product * HASH_MULTIPLIER) >>> (Integer.SIZE - HASH_BITS);
+  }
+
+  private static int power(int rank, int exponent) {
+    int power = 1;
+    for (int i = 0; i < exponent; i++) {
+      power *= PRIMES[rank];
+    }
+    return power;
+  }
+
+  private static boolean isStraight(int ranks) {
+    for (int straight : STRAIGHTS) {
+      if (ranks == straight) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int slot(long ranks) {
+    int displacement = DISPLACEMENTS[bucket(ranks)];
+    return (int) (((ranks ^ displacement) * SLOT_MULTIPLIER) >>> (Long.SIZE - SLOT_BITS));
+  }
+
+  /*
+  Enumerates every multiset of 6 or 7 ranks (with at most 4 of each), and
+  builds the displacements of the perfect hash used by slot(long), one bucket
+  at a time, largest first: each bucket gets the smallest displacement that
+  sends all of its multisets to free slots. The value of each multiset is then
+  the best value of the multisets with one fewer rank; the multisets of 6 ranks
+  are enumerated first, so those of 7 ranks can be looked up in the table.
+  */
+  private static void buildRankTable() {
+    long[] keys = new long[1 << SLOT_BITS];
+    int numSixes = addRankMultisets(new int[NUM_RANKS], 0, 6, keys, 0);
+    int numKeys = addRankMultisets(new int[NUM_RANKS], 0, 7, keys, numSixes);
+    int[] bucketStarts = new int[DISPLACEMENTS.length + 1];
+    for (int i = 0; i < numKeys; i++) {
+      bucketStarts[bucket(keys[i]) + 1]++;
+    }
+    int maxSize = 0;
+    for (int b = 0; b < DISPLACEMENTS.length; b++) {
+      maxSize = Math.max(maxSize, bucketStarts[b + 1]);
+      bucketStarts[b + 1] += bucketStarts[b];
+    }
+    long[] members = new long[numKeys];
+    int[] fill = Arrays.copyOf(bucketStarts, DISPLACEMENTS.length);
+    for (int i = 0; i < numKeys; i++) {
+      members[fill[bucket(keys[i])]++] = keys[i];
+    }
+    boolean[] used = new boolean[RANK_VALUES.length];
+    int[] slots = new int[maxSize];
+    for (int size = maxSize; size > 0; size--) {
+      for (int b = 0; b < DISPLACEMENTS.length; b++) {
+        if (bucketStarts[b + 1] - bucketStarts[b] == size) {
+          placeBucket(b, members, bucketStarts[b], size, used, slots);
+        }
+      }
+    }
+    for (int i = 0; i < numKeys; i++) {
+      long key = keys[i];
+      int best = WORST_VALUE;
+      for (long rest = key; rest != 0; ) {
+        int shift = Long.numberOfTrailingZeros(rest) / 3 * 3;
+        rest &= ~(0x7L << shift);
+        long fewer = key - (1L << shift);
+        best = Math.min(best, (i < numSixes) ? rankValue(fewer) : RANK_VALUES[slot(fewer)]);
+      }
+      RANK_VALUES[slot(key)] = (short) best;
+    }
+  }
+
+  private static void placeBucket(int bucket, long[] members, int start, int size,
+      boolean[] used, int[] slots) {
+    for (int displacement = 0; displacement <= Character.MAX_VALUE; displacement++) {
+      DISPLACEMENTS[bucket] = (char) displacement;
+      int placed = 0;
+      while (placed < size && !used[slots[placed] = slot(members[start + placed])]) {
+        used[slots[placed++]] = true;
+      }
+      if (placed == size) {
+        return;
+      }
+      while (placed > 0) {
+        used[slots[--placed]] = false;
+      }
+    }
+    throw new IllegalStateException();
+  }
+
+  private static int bucket(long ranks) {
+    return (int) ((ranks * BUCKET_MULTIPLIER) >>> (Long.SIZE - BUCKET_BITS));
+  }
+
+  private static int addRankMultisets(int[] counts, int rank, int remaining, long[] keys,
+      int numKeys) {
+    if (remaining == 0) {
+      long key = 0;
+      for (int r = 0; r < NUM_RANKS; r++) {
+        key |= (long) counts[r] << (3 * r);
+      }
+      keys[numKeys++] = key;
+    } else if (rank < NUM_RANKS) {
+      for (int count = Math.min(4, remaining); count >= 0; count--) {
+        counts[rank] = count;
+        numKeys = addRankMultisets(counts, rank + 1, remaining - count, keys, numKeys);
+      }
+      counts[rank] = 0;
+    }
+    return numKeys;
+  }
+
+  private static int rankValue(long counts) {
+    int product = 1;
+    int ranks = 0;
+    for (long rest = counts; rest != 0; ) {
+      int rank = Long.numberOfTrailingZeros(rest) / 3;
+      rest -= 1L << (3 * rank);
+      product *= PRIMES[rank];
+      ranks |= 1 << rank;
+    }
+    if (Integer.bitCount(ranks) == 5) {
+      return UNIQUE_5[ranks];
+    }
+    int slot = hash(product);
+    while (PRODUCTS[slot] != product) {
+      slot = (slot + 1) & HASH_MASK;
+    }
+    return PRODUCT_VALUES[slot];
+  }
+
+  /**
+   * Measures the throughput of {@link #evaluate(int, int, int, int, int)}
+   * over all 2,598,960 distinct 5-card hands, and of {@link
+   * #evaluate(int...)} over a fixed sample of 65,536 random 7-card hands and
+   * then (once) over all 133,784,560 distinct 7-card hands, printing the
+   * number of evaluations per second. The argument is the number of passes
+   * over the 5-card hands and the 7-card sample (default 20).
+   *
+   * @param args  command-line arguments.
+   */
+  public static void main(String... args) {
+    int passes = (args.length > 0) ? Integer.parseInt(args[0]) : 20;
+    int[] deck = CARD_ENCODINGS.clone();
+    long checksum = 0;
+    for (int pass = 0; pass <= passes; pass++) {
+      long start = System.nanoTime();
+      long evaluations = 0;
+      for (int a = 0; a < deck.length; a++) {
+        for (int b = a + 1; b < deck.length; b++) {
+          for (int c = b + 1; c < deck.length; c++) {
+            for (int d = c + 1; d < deck.length; d++) {
+              for (int e = d + 1; e < deck.length; e++) {
+                checksum += evaluate(deck[a], deck[b], deck[c], deck[d], deck[e]);
+                evaluations++;
+              }
+            }
+          }
+        }
+      }
+      if (pass > 0) {
+        System.out.printf("5-card: %.1f million evaluations/s%n",
+            evaluations * 1e3 / (System.nanoTime() - start));
+      }
+    }
+    int[][] hands = new int[1 << 16][7];
+    long state = 1;
+    for (int[] hand : hands) {
+      for (int j = 0; j < hand.length; j++) {
+        state = state * 6364136223846793005L + 1442695040888963407L;
+        int k = j + (int) ((state >>> 33) % (deck.length - j));
+        int swap = deck[j];
+        deck[j] = deck[k];
+        deck[k] = swap;
+        hand[j] = deck[j];
+      }
+    }
+    for (int pass = 0; pass <= passes; pass++) {
+      long start = System.nanoTime();
+      long evaluations = 0;
+      for (int repeat = 0; repeat < 32; repeat++) {
+        for (int[] hand : hands) {
+          checksum += evaluate(hand);
+          evaluations++;
+        }
+      }
+      if (pass > 0) {
+        System.out.printf("7-card (random): %.1f million evaluations/s%n",
+            evaluations * 1e3 / (System.nanoTime() - start));
+      }
+    }
+    int[] hand = new int[7];
+    long start = System.nanoTime();
+    long evaluations = 0;
+    for (int a = 0; a < deck.length; a++) {
+      hand[0] = deck[a];
+      for (int b = a + 1; b < deck.length; b++) {
+        hand[1] = deck[b];
+        for (int c = b + 1; c < deck.length; c++) {
+          hand[2] = deck[c];
+          for (int d = c + 1; d < deck.length; d++) {
+            hand[3] = deck[d];
+            for (int e = d + 1; e < deck.length; e++) {
+              hand[4] = deck[e];
+              for (int f = e + 1; f < deck.length; f++) {
+                hand[5] = deck[f];
+                for (int g = f + 1; g < deck.length; g++) {
+                  hand[6] = deck[g];
+                  checksum += evaluate(hand);
+                  evaluations++;
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+    System.out.printf("7-card (all %,d hands): %.1f million evaluations/s%n", evaluations,
+        evaluations * 1e3 / (System.nanoTime() - start));
+    System.out.printf("(checksum %d)%n", checksum);
+  }
+
+}
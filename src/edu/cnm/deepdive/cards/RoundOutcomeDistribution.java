@@ -0,0 +1,189 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.SplittableRandom;
+
+/**
+ * Joint distribution of the Hi-Lo true count at the start of a round and the
+ * outcome of that round, collected from a {@link BlackjackSimulation}. Once
+ * collected, the distribution supports constant-time, allocation-free
+ * sampling (using Vose's alias method), for use in {@link BankrollSimulator}.
+ * True counts outside the range [{@link #MIN_TRUE_COUNT}, {@link
+ * #MAX_TRUE_COUNT}] are clamped to that range.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class RoundOutcomeDistribution {
+
+  /** Lowest true count tracked separately. */
+  public static final int MIN_TRUE_COUNT = -6;
+  /** Highest true count tracked separately. */
+  public static final int MAX_TRUE_COUNT = 6;
+
+  private static final int[] RESULTS = {-2, 0, 2, 3};
+  private static final int NUM_COUNTS = MAX_TRUE_COUNT - MIN_TRUE_COUNT + 1;
+  private static final int NUM_CELLS = NUM_COUNTS * RESULTS.length;
+
+  private final long[] frequencies = new long[NUM_CELLS];
+  private final double[] probabilities = new double[NUM_CELLS];
+  private final int[] aliases = new int[NUM_CELLS];
+  private long total;
+  private boolean prepared;
+
+  /**
+   * Collects a distribution by playing the specified number of rounds of the
+   * specified simulation.
+   *
+   * @param simulation  source of round outcomes.
+   * @param rounds      number of rounds to play.
+   * @return            distribution of true counts and outcomes.
+   */
+  public static RoundOutcomeDistribution collect(BlackjackSimulation simulation, long rounds) {
+    RoundOutcomeDistribution distribution = new RoundOutcomeDistribution();
+    for (long i = 0; i < rounds; i++) {
+      int trueCount = simulation.getTrueCount();
+      distribution.record(trueCount, simulation.playRound());
+    }
+    return distribution;
+  }
+
+  /**
+   * Records a single round.
+   *
+   * @param trueCount   true count at the start of the round.
+   * @param result      net result of the round, as returned by {@link
+   *                    BlackjackSimulation#playRound()}.
+   * @throws IllegalArgumentException   if <code>result</code> isn't one of the
+   *                                    values returned by {@link
+   *                                    BlackjackSimulation#playRound()}.
+   */
+  public void record(int trueCount, int result) {
+    int outcome = 0;
+    while (outcome < RESULTS.length && RESULTS[outcome] != result) {
+      outcome++;
+    }
+    if (outcome == RESULTS.length) {
+      throw new IllegalArgumentException();
+    }
+    frequencies[cell(trueCount, outcome)]++;
+    total++;
+    prepared = false;
+  }
+
+  /**
+   * Returns the number of rounds recorded.
+   *
+   * @return  rounds recorded.
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * Returns the expected net result per unit bet of rounds starting at the
+   * specified true count, or 0 if no such rounds have been recorded.
+   *
+   * @param trueCount   true count at the start of a round.
+   * @return            expected net result per unit bet.
+   */
+  public double getExpectation(int trueCount) {
+    long rounds = 0;
+    long halfUnits = 0;
+    for (int outcome = 0; outcome < RESULTS.length; outcome++) {
+      long frequency = frequencies[cell(trueCount, outcome)];
+      rounds += frequency;
+      halfUnits += frequency * RESULTS[outcome];
+    }
+    return (rounds > 0) ? halfUnits / (2.0 * rounds) : 0;
+  }
+
+  /**
+   * Builds the tables used by {@link #sample(SplittableRandom)}, if any rounds
+   * have been recorded since they were last built. This must be invoked before
+   * sampling begins.
+   *
+   * @throws IllegalStateException  if no rounds have been recorded.
+   */
+  synchronized void prepare() {
+    if (total == 0) {
+      throw new IllegalStateException();
+    }
+    if (!prepared) {
+      buildAliases();
+      prepared = true;
+    }
+  }
+
+  /**
+   * Draws a round from this distribution, returning the true count and the
+   * result encoded in a single <code>int</code>, to be decoded with {@link
+   * #trueCount(int)} and {@link #result(int)}.
+   *
+   * @param rng   source of randomness.
+   * @return      encoded round.
+   */
+  int sample(SplittableRandom rng) {
+    int cell = rng.nextInt(NUM_CELLS);
+    return (rng.nextDouble() < probabilities[cell]) ? cell : aliases[cell];
+  }
+
+  /**
+   * Returns the true count of a round returned by {@link
+   * #sample(SplittableRandom)}.
+   *
+   * @param round   encoded round.
+   * @return        true count at the start of the round.
+   */
+  static int trueCount(int round) {
+    return round / RESULTS.length + MIN_TRUE_COUNT;
+  }
+
+  /**
+   * Returns the net result (in half units of the bet) of a round returned by
+   * {@link #sample(SplittableRandom)}.
+   *
+   * @param round   encoded round.
+   * @return        net result of the round.
+   */
+  static int result(int round) {
+    return RESULTS[round % RESULTS.length];
+  }
+
+  private static int cell(int trueCount, int outcome) {
+    int index = Math.max(MIN_TRUE_COUNT, Math.min(MAX_TRUE_COUNT, trueCount)) - MIN_TRUE_COUNT;
+    return index * RESULTS.length + outcome;
+  }
+
+  private void buildAliases() {
+    int[] small = new int[NUM_CELLS];
+    int[] large = new int[NUM_CELLS];
+    int numSmall = 0;
+    int numLarge = 0;
+    for (int i = 0; i < NUM_CELLS; i++) {
+      probabilities[i] = (double) frequencies[i] * NUM_CELLS / total;
+      aliases[i] = i;
+      if (probabilities[i] < 1) {
+        small[numSmall++] = i;
+      } else {
+        large[numLarge++] = i;
+      }
+    }
+    while (numSmall > 0 && numLarge > 0) {
+      int less = small[--numSmall];
+      int more = large[--numLarge];
+      aliases[less] = more;
+      probabilities[more] += probabilities[less] - 1;
+      if (probabilities[more] < 1) {
+        small[numSmall++] = more;
+      } else {
+        large[numLarge++] = more;
+      }
+    }
+    while (numLarge > 0) {
+      probabilities[large[--numLarge]] = 1;
+    }
+    while (numSmall > 0) {
+      probabilities[small[--numSmall]] = 1;
+    }
+  }
+
+}
@@ -0,0 +1,436 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar on-disk store of Blackjack round outcomes, for fast aggregate
+ * queries over very large numbers of rounds (e.g. as recorded by {@link
+ * BlackjackSimulation#recordRounds(RoundOutcomeStore, int)}). Each {@link
+ * Column} of a round is a single byte, and is held in its own memory-mapped
+ * file (an {@link OffHeapBuffer}) in the store's directory, so a query reads
+ * only the columns it uses. Rows are grouped in blocks of {@link #BLOCK_SIZE}
+ * rounds, and the minimum and maximum value of every column in every block
+ * are kept in a small summary file; a query skips blocks that can't contain
+ * matching rows, and skips the per-row test of a filter that every row in a
+ * block satisfies.
+ * <p>Queries ({@link Query}) select rows with inclusive range filters on any
+ * columns, and group the selected rows by the value of one column, computing
+ * the number of rounds and the total result of each group. Blocks are
+ * scanned in parallel.</p>
+ * <p>Rounds are added with {@link #append(int, int, int, int, int)}; the
+ * summary file is written by {@link #flush()} and {@link #close()}. Appending
+ * must not take place while a query is running. Instances must be closed when
+ * no longer needed.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class RoundOutcomeStore implements Closeable {
+
+  /** Number of rounds in each block of rows. */
+  public static final int BLOCK_SIZE = 1 << 16;
+
+  private static final String SUMMARY_FILE = "summary.bin";
+  private static final String COLUMN_FILE_SUFFIX = ".col";
+  private static final int SUMMARY_MAGIC = 0x424a5253;
+  private static final int NUM_COLUMNS = Column.values().length;
+  private static final int NUM_KEYS = 1 << Byte.SIZE;
+  private static final ThreadLocal<byte[][]> SCRATCH =
+      ThreadLocal.withInitial(() -> new byte[NUM_COLUMNS][BLOCK_SIZE]);
+
+  /**
+   * Columns of the store.
+   */
+  public enum Column {
+
+    /** Value of the dealer's up-card (2&ndash;11, where an ace is 11). */
+    UP_CARD,
+    /** Total of the player's first 2 cards. */
+    PLAYER_TOTAL,
+    /** Hi-Lo true count at the start of the round. */
+    TRUE_COUNT,
+    /** Caller-defined identifier of the table rules in effect. */
+    RULE_SET,
+    /** Net result for the player, in half units of the bet. */
+    RESULT
+
+  }
+
+  private final Path directory;
+  private final OffHeapBuffer[] columns;
+  private final byte[][] minimums;
+  private final byte[][] maximums;
+  private long size;
+
+  private RoundOutcomeStore(Path directory, OffHeapBuffer[] columns, long size,
+      byte[][] minimums, byte[][] maximums) {
+    this.directory = directory;
+    this.columns = columns;
+    this.size = size;
+    this.minimums = minimums;
+    this.maximums = maximums;
+  }
+
+  /**
+   * Creates an empty store in the specified directory, which is created if
+   * necessary. Any store already in the directory is overwritten.
+   *
+   * @param directory     location of the column and summary files.
+   * @param capacity      maximum number of rounds that can be stored.
+   * @return              new store.
+   * @throws IOException  if the files can't be created or mapped.
+   */
+  public static RoundOutcomeStore create(Path directory, long capacity) throws IOException {
+    Files.createDirectories(directory);
+    OffHeapBuffer[] columns = mapColumns(directory, capacity, true);
+    int blocks = numBlocks(capacity);
+    byte[][] minimums = new byte[NUM_COLUMNS][blocks];
+    byte[][] maximums = new byte[NUM_COLUMNS][blocks];
+    RoundOutcomeStore store = new RoundOutcomeStore(directory, columns, 0, minimums, maximums);
+    store.flush();
+    return store;
+  }
+
+  /**
+   * Opens a store previously created with {@link #create(Path, long)}. Further
+   * rounds may be appended, up to the capacity specified when the store was
+   * created.
+   *
+   * @param directory     location of the column and summary files.
+   * @return              store containing the rounds previously appended.
+   * @throws IOException  if the files can't be read or mapped, or the summary
+   *                      file is corrupt.
+   */
+  public static RoundOutcomeStore open(Path directory) throws IOException {
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+        Files.newInputStream(directory.resolve(SUMMARY_FILE))))) {
+      if (input.readInt() != SUMMARY_MAGIC || input.readInt() != NUM_COLUMNS) {
+        throw new IOException("Not a round outcome store: " + directory);
+      }
+      long capacity = input.readLong();
+      long size = input.readLong();
+      int blocks = numBlocks(capacity);
+      byte[][] minimums = new byte[NUM_COLUMNS][blocks];
+      byte[][] maximums = new byte[NUM_COLUMNS][blocks];
+      for (int column = 0; column < NUM_COLUMNS; column++) {
+        input.readFully(minimums[column], 0, numBlocks(size));
+        input.readFully(maximums[column], 0, numBlocks(size));
+      }
+      OffHeapBuffer[] columns = mapColumns(directory, capacity, false);
+      return new RoundOutcomeStore(directory, columns, size, minimums, maximums);
+    }
+  }
+
+  /**
+   * Appends a single round to the store.
+   *
+   * @param upCard                    value of the dealer's up-card.
+   * @param playerTotal               total of the player's first 2 cards.
+   * @param trueCount                 true count at the start of the round;
+   *                                  values outside the range of a
+   *                                  <code>byte</code> are clamped.
+   * @param ruleSet                   identifier of the table rules.
+   * @param result                    net result for the player, in half
+   *                                  units of the bet.
+   * @throws BufferOverflowException  if the store is full.
+   */
+  public void append(int upCard, int playerTotal, int trueCount, int ruleSet, int result) {
+    if (size == columns[0].capacity()) {
+      throw new BufferOverflowException();
+    }
+    int block = (int) (size / BLOCK_SIZE);
+    boolean first = size % BLOCK_SIZE == 0;
+    put(Column.UP_CARD, block, first, (byte) upCard);
+    put(Column.PLAYER_TOTAL, block, first, (byte) playerTotal);
+    put(Column.TRUE_COUNT, block, first,
+        (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, trueCount)));
+    put(Column.RULE_SET, block, first, (byte) ruleSet);
+    put(Column.RESULT, block, first, (byte) result);
+    size++;
+  }
+
+  /**
+   * Returns the number of rounds in the store.
+   *
+   * @return  number of rounds.
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns a new query, initially selecting all rounds in the store.
+   *
+   * @return  new query.
+   */
+  public Query query() {
+    return new Query();
+  }
+
+  /**
+   * Writes the column files and the summary file to disk, so that all rounds
+   * appended so far will be visible to a subsequent {@link #open(Path)}.
+   *
+   * @throws IOException  if the summary file can't be written.
+   */
+  public void flush() throws IOException {
+    for (OffHeapBuffer column : columns) {
+      column.force();
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeInt(SUMMARY_MAGIC);
+    output.writeInt(NUM_COLUMNS);
+    output.writeLong(columns[0].capacity());
+    output.writeLong(size);
+    for (int column = 0; column < NUM_COLUMNS; column++) {
+      output.write(minimums[column], 0, numBlocks(size));
+      output.write(maximums[column], 0, numBlocks(size));
+    }
+    output.flush();
+    ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+    Path summary = directory.resolve(SUMMARY_FILE);
+    Path temp = Files.createTempFile(directory, SUMMARY_FILE, null);
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(false);
+      }
+      Files.move(temp, summary, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      for (OffHeapBuffer column : columns) {
+        column.close();
+      }
+    }
+  }
+
+  private void put(Column column, int block, boolean first, byte value) {
+    int index = column.ordinal();
+    columns[index].put(size, value);
+    if (first || value < minimums[index][block]) {
+      minimums[index][block] = value;
+    }
+    if (first || value > maximums[index][block]) {
+      maximums[index][block] = value;
+    }
+  }
+
+  private static OffHeapBuffer[] mapColumns(Path directory, long capacity, boolean create)
+      throws IOException {
+    OffHeapBuffer[] columns = new OffHeapBuffer[NUM_COLUMNS];
+    try {
+      for (Column column : Column.values()) {
+        Path file = directory.resolve(
+            column.name().toLowerCase(Locale.ROOT) + COLUMN_FILE_SUFFIX);
+        if (create) {
+          Files.deleteIfExists(file);
+        }
+        columns[column.ordinal()] = OffHeapBuffer.map(file, capacity);
+      }
+      return columns;
+    } catch (IOException | RuntimeException e) {
+      for (OffHeapBuffer column : columns) {
+        if (column != null) {
+          column.close();
+        }
+      }
+      throw e;
+    }
+  }
+
+  private static int numBlocks(long rows) {
+    return (int) ((rows + BLOCK_SIZE - 1) / BLOCK_SIZE);
+  }
+
+  /**
+   * Filtered, grouped aggregate query over the rounds in the store. Filters
+   * are added with {@link #where(Column, int, int)}, and the query is run by
+   * {@link #groupBy(Column)}; a query may be run any number of times.
+   */
+  public class Query {
+
+    private final int[] lows = new int[NUM_COLUMNS];
+    private final int[] highs = new int[NUM_COLUMNS];
+
+    private Query() {
+      Arrays.fill(lows, Byte.MIN_VALUE);
+      Arrays.fill(highs, Byte.MAX_VALUE);
+    }
+
+    /**
+     * Restricts the query to rounds where the value of the specified column
+     * is in the specified inclusive range. Multiple filters on the same
+     * column are combined.
+     *
+     * @param column  column to filter on.
+     * @param low     minimum value selected.
+     * @param high    maximum value selected.
+     * @return        this query.
+     */
+    public Query where(Column column, int low, int high) {
+      int index = column.ordinal();
+      lows[index] = Math.max(lows[index], low);
+      highs[index] = Math.min(highs[index], high);
+      return this;
+    }
+
+    /**
+     * Runs the query, grouping the selected rounds by the value of the
+     * specified column.
+     *
+     * @param column  column whose values define the groups.
+     * @return        number of rounds and total result of each group.
+     */
+    public Aggregate groupBy(Column column) {
+      int key = column.ordinal();
+      int result = Column.RESULT.ordinal();
+      return IntStream.range(0, numBlocks(size))
+          .parallel()
+          .collect(Aggregate::new, (aggregate, block) -> scan(aggregate, block, key, result),
+              Aggregate::add);
+    }
+
+    /*
+    Column values are copied into a scratch buffer held by the scanning thread,
+    and reused for every block that thread scans.
+    */
+    private void scan(Aggregate aggregate, int block, int key, int result) {
+      int[] filters = new int[NUM_COLUMNS];
+      int numFilters = 0;
+      for (int column = 0; column < NUM_COLUMNS; column++) {
+        int min = minimums[column][block];
+        int max = maximums[column][block];
+        if (max < lows[column] || min > highs[column]) {
+          return;
+        }
+        if (min < lows[column] || max > highs[column]) {
+          filters[numFilters++] = column;
+        }
+      }
+      long start = (long) block * BLOCK_SIZE;
+      int length = (int) Math.min(BLOCK_SIZE, size - start);
+      byte[][] values = SCRATCH.get();
+      boolean[] read = new boolean[NUM_COLUMNS];
+      for (int i = 0; i < numFilters; i++) {
+        read(values, read, filters[i], start, length);
+      }
+      read(values, read, key, start, length);
+      read(values, read, result, start, length);
+      byte[] keys = values[key];
+      byte[] results = values[result];
+      rows:
+      for (int row = 0; row < length; row++) {
+        for (int i = 0; i < numFilters; i++) {
+          int column = filters[i];
+          int value = values[column][row];
+          if (value < lows[column] || value > highs[column]) {
+            continue rows;
+          }
+        }
+        int group = keys[row] - Byte.MIN_VALUE;
+        aggregate.counts[group]++;
+        aggregate.totals[group] += results[row];
+      }
+    }
+
+    private void read(byte[][] values, boolean[] read, int column, long start, int length) {
+      if (!read[column]) {
+        columns[column].get(start, values[column], 0, length);
+        read[column] = true;
+      }
+    }
+
+  }
+
+  /**
+   * Result of a {@link Query}: the number of rounds and total result of each
+   * group, indexed by the value of the grouping column.
+   */
+  public static class Aggregate {
+
+    private final long[] counts = new long[NUM_KEYS];
+    private final long[] totals = new long[NUM_KEYS];
+
+    private Aggregate() {
+    }
+
+    /**
+     * Returns the number of rounds selected with the specified value of the
+     * grouping column.
+     *
+     * @param key   value of the grouping column.
+     * @return      number of rounds.
+     */
+    public long getCount(int key) {
+      return counts[key - Byte.MIN_VALUE];
+    }
+
+    /**
+     * Returns the total net result of the rounds selected with the specified
+     * value of the grouping column.
+     *
+     * @param key   value of the grouping column.
+     * @return      total result, in half units of the bet.
+     */
+    public long getTotal(int key) {
+      return totals[key - Byte.MIN_VALUE];
+    }
+
+    /**
+     * Returns the mean net result per unit bet of the rounds selected with the
+     * specified value of the grouping column.
+     *
+     * @param key   value of the grouping column.
+     * @return      mean result per unit bet, or {@link Double#NaN} if no
+     *              rounds were selected with that value.
+     */
+    public double getExpectation(int key) {
+      long count = getCount(key);
+      return (count > 0) ? getTotal(key) / (2.0 * count) : Double.NaN;
+    }
+
+    /**
+     * Returns the total number of rounds selected.
+     *
+     * @return  number of rounds.
+     */
+    public long getCount() {
+      return Arrays.stream(counts).sum();
+    }
+
+    private void add(Aggregate other) {
+      for (int i = 0; i < NUM_KEYS; i++) {
+        counts[i] += other.counts[i];
+        totals[i] += other.totals[i];
+      }
+    }
+
+  }
+
+}
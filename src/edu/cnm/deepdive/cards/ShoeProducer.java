@@ -0,0 +1,144 @@
+package edu.cnm.deepdive.cards;
+
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pipeline that shuffles {@link Deck Decks} ahead of time on background
+ * threads, so that shuffling is removed from the critical path of a round.
+ * Shuffled decks are placed in a bounded buffer, from which tables obtain them
+ * with {@link #take()}; when the buffer is full, the producer threads block
+ * until a deck is taken (backpressure). Decks that are no longer needed should
+ * be handed back with {@link #recycle(Deck)}, to be gathered and reshuffled;
+ * when no recycled deck is available, producers create new decks.
+ * <p>Counters of decks produced and consumed, the current depth of the buffer,
+ * and the cumulative time that consumers spent waiting for a shuffled deck
+ * are available for monitoring.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class ShoeProducer implements AutoCloseable {
+
+  private final BlockingQueue<Deck> ready;
+  private final BlockingQueue<Deck> recycled = new LinkedBlockingQueue<>();
+  private final ExecutorService executor;
+  private final LongAdder produced = new LongAdder();
+  private final LongAdder consumed = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+
+  /**
+   * Initializes this instance and starts the producer threads.
+   *
+   * @param depth       maximum number of shuffled decks waiting to be taken.
+   * @param producers   number of background producer threads.
+   * @param rngFactory  source of a random number generator for each producer
+   *                    thread.
+   */
+  public ShoeProducer(int depth, int producers, Supplier<? extends Random> rngFactory) {
+    ready = new ArrayBlockingQueue<>(depth);
+    executor = Executors.newFixedThreadPool(producers, (runnable) -> {
+      Thread thread = new Thread(runnable, "shoe-producer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    for (int i = 0; i < producers; i++) {
+      executor.execute(() -> produce(rngFactory.get()));
+    }
+  }
+
+  /**
+   * Removes and returns a shuffled deck, waiting if necessary until one is
+   * available.
+   *
+   * @return                      shuffled deck.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public Deck take() throws InterruptedException {
+    long start = System.nanoTime();
+    Deck deck = ready.take();
+    waitNanos.add(System.nanoTime() - start);
+    consumed.increment();
+    return deck;
+  }
+
+  /**
+   * Hands back a deck that is no longer needed, so that it can be gathered,
+   * reshuffled, and returned by a subsequent {@link #take()}.
+   *
+   * @param deck  deck to be reused.
+   */
+  public void recycle(Deck deck) {
+    recycled.offer(deck);
+  }
+
+  /**
+   * Returns the number of shuffled decks currently waiting to be taken.
+   *
+   * @return  pipeline depth.
+   */
+  public int getDepth() {
+    return ready.size();
+  }
+
+  /**
+   * Returns the total number of decks shuffled, including any waiting for room
+   * in the buffer. This is never less than {@link #getConsumed()}.
+   *
+   * @return  decks produced.
+   */
+  public long getProduced() {
+    return produced.sum();
+  }
+
+  /**
+   * Returns the total number of decks returned by {@link #take()}.
+   *
+   * @return  decks consumed.
+   */
+  public long getConsumed() {
+    return consumed.sum();
+  }
+
+  /**
+   * Returns the cumulative time that callers of {@link #take()} have spent
+   * waiting for a shuffled deck.
+   *
+   * @return  total wait time, in nanoseconds.
+   */
+  public long getWaitNanos() {
+    return waitNanos.sum();
+  }
+
+  /**
+   * Stops the producer threads. Decks already in the buffer can still be taken.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void produce(Random rng) {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Deck deck = recycled.poll();
+        if (deck == null) {
+          deck = new Deck();
+        } else {
+          deck.gather();
+        }
+        deck.shuffle(rng);
+        produced.increment();
+        ready.put(deck);
+      }
+    } catch (InterruptedException e) {
+      // Producer has been shut down.
+    }
+  }
+
+}
@@ -0,0 +1,324 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Paths;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Partitions a simulation job into tasks, each consisting of a distinct seed
+ * and a number of rounds, and distributes those tasks to {@link
+ * SimulationWorker} processes connected over TCP sockets. The coordinator
+ * launches a specified number of worker JVMs on the local host (connecting
+ * over the loopback interface by default); additional workers started on
+ * other hosts may connect as well, if the coordinator is bound to an address
+ * reachable from those hosts.
+ * <p>Since each task is determined entirely by its seed, the merged {@link
+ * SimulationTally} of a job is the same no matter how the tasks are spread
+ * across workers. A task whose worker fails (e.g. the process dies or the
+ * connection drops, or no result arrives within the task timeout) is returned
+ * to the queue and retried, up to {@link #MAX_ATTEMPTS} times; failed local
+ * worker processes are replaced, up to {@link #MAX_ATTEMPTS} launches per
+ * local worker. If every local worker launch has been used up and no worker
+ * is connected, the job fails rather than waiting indefinitely.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class SimulationCoordinator implements Closeable {
+
+  /** Maximum number of times a single task is attempted before a job fails. */
+  public static final int MAX_ATTEMPTS = 3;
+  /** Default time (in milliseconds) allowed for a worker to complete a task. */
+  public static final int DEFAULT_TASK_TIMEOUT = 600_000;
+
+  private static final int POLL_INTERVAL = 100;
+
+  private final ServerSocket server;
+  private final int localWorkers;
+  private final List<Process> processes = new LinkedList<>();
+  private int launches;
+  private volatile int taskTimeout = DEFAULT_TASK_TIMEOUT;
+
+  /**
+   * Initializes this instance to accept worker connections on an ephemeral
+   * port of the loopback interface, and to launch the specified number of
+   * local worker processes for each job.
+   *
+   * @param localWorkers  number of worker processes to launch locally.
+   * @throws IOException  if the server socket can't be opened.
+   */
+  public SimulationCoordinator(int localWorkers) throws IOException {
+    this(localWorkers, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+  }
+
+  /**
+   * Initializes this instance to accept worker connections on the specified
+   * address, and to launch the specified number of local worker processes for
+   * each job.
+   *
+   * @param localWorkers  number of worker processes to launch locally.
+   * @param address       address on which worker connections are accepted.
+   * @throws IOException  if the server socket can't be opened.
+   */
+  public SimulationCoordinator(int localWorkers, InetSocketAddress address) throws IOException {
+    this.localWorkers = localWorkers;
+    server = new ServerSocket();
+    server.bind(address);
+    server.setSoTimeout(POLL_INTERVAL);
+  }
+
+  /**
+   * Returns the port on which this instance accepts worker connections.
+   *
+   * @return  port number.
+   */
+  public int getPort() {
+    return server.getLocalPort();
+  }
+
+  /**
+   * Sets the time allowed for a worker to return the result of a task, after
+   * which the worker is disconnected and the task is retried. The default is
+   * {@link #DEFAULT_TASK_TIMEOUT}.
+   *
+   * @param taskTimeout   timeout, in milliseconds; 0 for no timeout.
+   */
+  public void setTaskTimeout(int taskTimeout) {
+    this.taskTimeout = taskTimeout;
+  }
+
+  /**
+   * Runs a job consisting of <code>tasks</code> tasks, each simulating
+   * <code>roundsPerTask</code> rounds, where the seed of task <i>i</i> is
+   * <code>baseSeed + i</code>. This method blocks until all tasks have
+   * completed.
+   *
+   * @param baseSeed              seed of the first task.
+   * @param tasks                 number of tasks.
+   * @param roundsPerTask         number of rounds simulated by each task.
+   * @return                      merged tally of all tasks.
+   * @throws IOException          if a task fails {@link #MAX_ATTEMPTS} times,
+   *                              or if no workers remain to complete the job.
+   * @throws InterruptedException if the calling thread is interrupted while
+   *                              waiting for the job to complete.
+   */
+  public SimulationTally run(long baseSeed, int tasks, long roundsPerTask)
+      throws IOException, InterruptedException {
+    Job job = new Job(baseSeed, tasks, roundsPerTask);
+    synchronized (processes) {
+      launches = 0;
+    }
+    Thread acceptor = new Thread(() -> accept(job), "simulation-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    try {
+      do {
+        if (!replaceLocalWorkers() && job.connected.get() == 0) {
+          job.fail(new IOException("All local workers failed, and no workers are connected."));
+        }
+      } while (!job.remaining.await(POLL_INTERVAL, TimeUnit.MILLISECONDS));
+    } finally {
+      job.done = true;
+      acceptor.join();
+    }
+    if (job.failure != null) {
+      throw job.failure;
+    }
+    SimulationTally tally = new SimulationTally();
+    for (SimulationTally result : job.results) {
+      tally.merge(result);
+    }
+    return tally;
+  }
+
+  /**
+   * Stops accepting worker connections, and terminates any local worker
+   * processes still running.
+   *
+   * @throws IOException  if the server socket can't be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (processes) {
+      for (Process process : processes) {
+        process.destroy();
+      }
+      processes.clear();
+    }
+    server.close();
+  }
+
+  private void accept(Job job) {
+    while (!job.done) {
+      try {
+        Socket socket = server.accept();
+        Thread handler = new Thread(() -> serve(job, socket), "simulation-handler");
+        handler.setDaemon(true);
+        handler.start();
+      } catch (SocketTimeoutException e) {
+        // Check for job completion, and continue accepting.
+      } catch (IOException e) {
+        // The server socket is closed or otherwise unusable.
+        job.fail(e);
+        return;
+      }
+    }
+  }
+
+  private void serve(Job job, Socket socket) {
+    job.connected.incrementAndGet();
+    try (
+        Socket s = socket;
+        DataInputStream input =
+            new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        DataOutputStream output =
+            new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+    ) {
+      s.setSoTimeout(taskTimeout);
+      while (!job.done) {
+        Integer task = job.pending.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        if (task != null) {
+          try {
+            output.writeInt(task);
+            output.writeLong(job.baseSeed + task);
+            output.writeLong(job.roundsPerTask);
+            output.flush();
+            if (input.readInt() != task) {
+              throw new IOException("Worker returned result for wrong task.");
+            }
+            job.complete(task, SimulationTally.read(input));
+          } catch (IOException e) {
+            job.retry(task, e);
+            return;
+          }
+        }
+      }
+      output.writeInt(SimulationWorker.SHUTDOWN);
+      output.flush();
+    } catch (IOException | InterruptedException e) {
+      // Worker connection is no longer usable; any task in progress was requeued.
+    } finally {
+      job.connected.decrementAndGet();
+    }
+  }
+
+  /*
+  Returns false if local workers are in use, but none are running and none can
+  be launched.
+  */
+  private boolean replaceLocalWorkers() throws IOException {
+    synchronized (processes) {
+      processes.removeIf((process) -> !process.isAlive());
+      while (processes.size() < localWorkers && launches < localWorkers * MAX_ATTEMPTS) {
+        processes.add(launchLocalWorker());
+        launches++;
+      }
+      return localWorkers == 0 || !processes.isEmpty();
+    }
+  }
+
+  private Process launchLocalWorker() throws IOException {
+    InetAddress address = server.getInetAddress();
+    if (address.isAnyLocalAddress()) {
+      address = InetAddress.getLoopbackAddress();
+    }
+    return new ProcessBuilder(
+        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp", System.getProperty("java.class.path"),
+        SimulationWorker.class.getName(),
+        address.getHostAddress(),
+        Integer.toString(getPort())
+    )
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+  }
+
+  /**
+   * Runs a job from the command line. The arguments are the number of tasks,
+   * the number of rounds per task, the number of local workers, and
+   * (optionally) the base seed and a port. If a port is specified, the
+   * coordinator accepts connections on all interfaces, so that workers on
+   * other hosts can join the job; otherwise, only local workers are used.
+   *
+   * @param args                  command-line arguments.
+   * @throws IOException          if the job fails.
+   * @throws InterruptedException if interrupted while waiting for the job.
+   */
+  public static void main(String... args) throws IOException, InterruptedException {
+    int tasks = Integer.parseInt(args[0]);
+    long roundsPerTask = Long.parseLong(args[1]);
+    int localWorkers = Integer.parseInt(args[2]);
+    long baseSeed = (args.length > 3) ? Long.parseLong(args[3]) : 0;
+    InetSocketAddress address = (args.length > 4)
+        ? new InetSocketAddress(Integer.parseInt(args[4]))
+        : new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    try (SimulationCoordinator coordinator = new SimulationCoordinator(localWorkers, address)) {
+      System.out.println(coordinator.run(baseSeed, tasks, roundsPerTask));
+    }
+  }
+
+  private static class Job {
+
+    private final long baseSeed;
+    private final long roundsPerTask;
+    private final SimulationTally[] results;
+    private final AtomicIntegerArray attempts;
+    private final BlockingQueue<Integer> pending = new LinkedBlockingQueue<>();
+    private final CountDownLatch remaining;
+    private final AtomicInteger connected = new AtomicInteger();
+    private volatile boolean done;
+    private volatile IOException failure;
+
+    private Job(long baseSeed, int tasks, long roundsPerTask) {
+      this.baseSeed = baseSeed;
+      this.roundsPerTask = roundsPerTask;
+      results = new SimulationTally[tasks];
+      attempts = new AtomicIntegerArray(tasks);
+      remaining = new CountDownLatch(tasks);
+      for (int i = 0; i < tasks; i++) {
+        pending.add(i);
+      }
+    }
+
+    private void complete(int task, SimulationTally result) {
+      results[task] = result;
+      remaining.countDown();
+    }
+
+    private void retry(int task, IOException e) {
+      if (attempts.incrementAndGet(task) < MAX_ATTEMPTS) {
+        pending.add(task);
+      } else {
+        fail(e);
+      }
+    }
+
+    private void fail(IOException e) {
+      if (!done) {
+        failure = e;
+        while (remaining.getCount() > 0) {
+          remaining.countDown();
+        }
+      }
+    }
+
+  }
+
+}
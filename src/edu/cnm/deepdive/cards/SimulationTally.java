@@ -0,0 +1,178 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Accumulates the outcomes of simulated Blackjack rounds, from the player's
+ * point of view. Tallies from independent simulations can be combined with
+ * {@link #merge(SimulationTally)}, and written to (and read from) a compact
+ * binary form for checkpoints and inter-process communication.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class SimulationTally {
+
+  /** Number of bytes written by {@link #write(DataOutput)}. */
+  public static final int BYTES = 5 * Long.BYTES;
+
+  private long rounds;
+  private long wins;
+  private long losses;
+  private long pushes;
+  private long blackjacks;
+
+  /**
+   * Records the outcome of a single round.
+   *
+   * @param comparison  result of comparing the player's hand to the dealer's,
+   *                    as returned by {@link BlackjackHand#compareTo(BlackjackHand)}.
+   * @param blackjack   flag indicating that the player won with a blackjack.
+   */
+  public void record(int comparison, boolean blackjack) {
+    rounds++;
+    if (comparison > 0) {
+      wins++;
+      if (blackjack) {
+        blackjacks++;
+      }
+    } else if (comparison < 0) {
+      losses++;
+    } else {
+      pushes++;
+    }
+  }
+
+  /**
+   * Adds the counts in <code>other</code> to those of this instance.
+   *
+   * @param other   tally to be merged into this instance.
+   * @return        this instance.
+   */
+  public SimulationTally merge(SimulationTally other) {
+    rounds += other.rounds;
+    wins += other.wins;
+    losses += other.losses;
+    pushes += other.pushes;
+    blackjacks += other.blackjacks;
+    return this;
+  }
+
+  /**
+   * Writes the counts of this instance to <code>output</code>.
+   *
+   * @param output        destination of the counts.
+   * @throws IOException  if the counts can't be written.
+   */
+  public void write(DataOutput output) throws IOException {
+    output.writeLong(rounds);
+    output.writeLong(wins);
+    output.writeLong(losses);
+    output.writeLong(pushes);
+    output.writeLong(blackjacks);
+  }
+
+  /**
+   * Reads counts previously written by {@link #write(DataOutput)}.
+   *
+   * @param input         source of the counts.
+   * @return              tally containing the counts read.
+   * @throws IOException  if the counts can't be read.
+   */
+  public static SimulationTally read(DataInput input) throws IOException {
+    SimulationTally tally = new SimulationTally();
+    tally.rounds = input.readLong();
+    tally.wins = input.readLong();
+    tally.losses = input.readLong();
+    tally.pushes = input.readLong();
+    tally.blackjacks = input.readLong();
+    return tally;
+  }
+
+  /**
+   * Returns the number of rounds recorded.
+   *
+   * @return  rounds played.
+   */
+  public long getRounds() {
+    return rounds;
+  }
+
+  /**
+   * Returns the number of rounds won by the player (including blackjacks).
+   *
+   * @return  rounds won.
+   */
+  public long getWins() {
+    return wins;
+  }
+
+  /**
+   * Returns the number of rounds lost by the player.
+   *
+   * @return  rounds lost.
+   */
+  public long getLosses() {
+    return losses;
+  }
+
+  /**
+   * Returns the number of rounds that ended in a push.
+   *
+   * @return  rounds pushed.
+   */
+  public long getPushes() {
+    return pushes;
+  }
+
+  /**
+   * Returns the number of rounds won by the player with a blackjack.
+   *
+   * @return  blackjack wins.
+   */
+  public long getBlackjacks() {
+    return blackjacks;
+  }
+
+  /**
+   * Returns the player's net result in units of a flat bet, where a blackjack
+   * pays 3:2.
+   *
+   * @return  net units won (negative if lost).
+   */
+  public double getNet() {
+    return wins + blackjacks / 2.0 - losses;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    boolean result;
+    if (this == obj) {
+      result = true;
+    } else if (obj instanceof SimulationTally) {
+      SimulationTally other = (SimulationTally) obj;
+      result = rounds == other.rounds
+          && wins == other.wins
+          && losses == other.losses
+          && pushes == other.pushes
+          && blackjacks == other.blackjacks;
+    } else {
+      result = false;
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rounds, wins, losses, pushes, blackjacks);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("rounds=%d, wins=%d, losses=%d, pushes=%d, blackjacks=%d, net=%.1f",
+        rounds, wins, losses, pushes, blackjacks, getNet());
+  }
+
+}
@@ -0,0 +1,77 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Worker process for a {@link SimulationCoordinator}. A worker connects to the
+ * coordinator, then repeatedly receives a task (a seed and a number of rounds),
+ * runs a {@link BlackjackSimulation} for that task, and sends back the
+ * resulting {@link SimulationTally}, until the coordinator signals that there
+ * are no more tasks. Workers are normally launched by the coordinator on the
+ * local host, but may also be started on other hosts, connecting to the
+ * coordinator's address and port.
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class SimulationWorker {
+
+  /** Task index sent by the coordinator to indicate that the worker should exit. */
+  static final int SHUTDOWN = -1;
+
+  private final String host;
+  private final int port;
+
+  /**
+   * Initializes this instance to connect to a coordinator at the specified
+   * host and port.
+   *
+   * @param host  host name or address of the coordinator.
+   * @param port  port on which the coordinator accepts worker connections.
+   */
+  public SimulationWorker(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  /**
+   * Connects to the coordinator and runs tasks until told to shut down.
+   *
+   * @throws IOException  if the connection fails.
+   */
+  public void run() throws IOException {
+    try (
+        Socket socket = new Socket(host, port);
+        DataInputStream input =
+            new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream output =
+            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    ) {
+      for (int task = input.readInt(); task != SHUTDOWN; task = input.readInt()) {
+        long seed = input.readLong();
+        long rounds = input.readLong();
+        BlackjackSimulation simulation = new BlackjackSimulation(seed);
+        simulation.run(rounds, null, BlackjackSimulation.DEFAULT_CHECKPOINT_INTERVAL);
+        output.writeInt(task);
+        simulation.getTally().write(output);
+        output.flush();
+      }
+    }
+  }
+
+  /**
+   * Runs a worker from the command line. The arguments are the host and port
+   * of the coordinator.
+   *
+   * @param args          command-line arguments.
+   * @throws IOException  if the connection fails.
+   */
+  public static void main(String... args) throws IOException {
+    new SimulationWorker(args[0], Integer.parseInt(args[1])).run();
+  }
+
+}
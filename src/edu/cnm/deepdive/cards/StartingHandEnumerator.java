@@ -0,0 +1,306 @@
+package edu.cnm.deepdive.cards;
+
+import java.io.PrintStream;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes exact outcome probabilities for every two-card player starting hand
+ * against every dealer up-card, for a shoe of a given number of decks, by
+ * exhaustively walking all card sequences (weighted by the number of ways
+ * each can be drawn) instead of sampling. Play follows the same rules as
+ * {@link BlackjackSimulation}: the round ends immediately if either hand is a
+ * blackjack; otherwise, the player hits or stands as directed by {@link
+ * BasicStrategyBlackjackHand}, and the dealer plays out as in {@link
+ * BlackjackDealerHand} if the player hasn't busted.
+ * <p>Cards are grouped by Blackjack value (ace, 2&ndash;9, and 10, the latter
+ * including face cards), and starting hands are unordered pairs of values.
+ * The work is split across up-cards with fork-join parallelism.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class StartingHandEnumerator {
+
+  /** Number of distinct card values (ace, 2&ndash;9, 10). */
+  public static final int NUM_VALUES = 10;
+  /** Number of distinct unordered pairs of card values. */
+  public static final int NUM_PAIRS = NUM_VALUES * (NUM_VALUES + 1) / 2;
+
+  /** Index of the probability of a player win (including blackjack wins). */
+  public static final int WIN = 0;
+  /** Index of the probability of a push. */
+  public static final int PUSH = 1;
+  /** Index of the probability of a player loss. */
+  public static final int LOSS = 2;
+  /** Index of the probability of a player win with a blackjack. */
+  public static final int BLACKJACK = 3;
+
+  private static final int NUM_OUTCOMES = 4;
+  private static final String[] VALUE_SYMBOLS = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "T"};
+
+  private final int decks;
+  private final boolean hitOnSoft17;
+
+  /**
+   * Initializes this instance for a shoe of the specified number of decks,
+   * with the specified dealer rule.
+   *
+   * @param decks         number of decks in the shoe.
+   * @param hitOnSoft17   flag indicating whether the dealer hits on a soft 17.
+   */
+  public StartingHandEnumerator(int decks, boolean hitOnSoft17) {
+    this.decks = decks;
+    this.hitOnSoft17 = hitOnSoft17;
+  }
+
+  /**
+   * Computes the outcome probabilities of every starting hand against every
+   * dealer up-card.
+   *
+   * @return  table of results.
+   */
+  public Table enumerate() {
+    Table table = new Table();
+    List<UpCardTask> tasks = new LinkedList<>();
+    for (int up = 0; up < NUM_VALUES; up++) {
+      tasks.add(new UpCardTask(up, table));
+    }
+    ForkJoinTask.invokeAll(tasks);
+    return table;
+  }
+
+  /**
+   * Returns the index of the unordered pair of card values <code>first</code>
+   * and <code>second</code> (each in the range 0&ndash;9, for ace through 10)
+   * in a {@link Table}.
+   *
+   * @param first   value index of one card.
+   * @param second  value index of the other card.
+   * @return        pair index, in the range 0&ndash;54.
+   */
+  public static int pairIndex(int first, int second) {
+    int low = Math.min(first, second);
+    int high = Math.max(first, second);
+    return high * (high + 1) / 2 + low;
+  }
+
+  /**
+   * Returns the value index (in the range 0&ndash;9) of the specified rank.
+   *
+   * @param rank  card rank.
+   * @return      value index: 0 for an ace, 9 for a 10 or face card, and the
+   *              point value minus 1 otherwise.
+   */
+  public static int valueIndex(Rank rank) {
+    return Math.min(rank.ordinal(), NUM_VALUES - 1);
+  }
+
+  private void enumerate(int up, Table table) {
+    int[] shoe = new int[NUM_VALUES];
+    for (int v = 0; v < NUM_VALUES; v++) {
+      shoe[v] = 4 * decks * ((v == NUM_VALUES - 1) ? 4 : 1);
+    }
+    int remaining = 52 * decks;
+    long upWays = shoe[up];
+    shoe[up]--;
+    remaining--;
+    for (int second = 0; second < NUM_VALUES; second++) {
+      for (int first = 0; first <= second; first++) {
+        long pairWays = (first == second)
+            ? (long) shoe[first] * (shoe[first] - 1) / 2
+            : (long) shoe[first] * shoe[second];
+        int pair = pairIndex(first, second);
+        table.weights[up][pair] = upWays * pairWays;
+        if (pairWays > 0) {
+          shoe[first]--;
+          shoe[second]--;
+          double[] outcomes = table.outcomes[up][pair];
+          resolve(shoe, remaining - 2, up, first, second, outcomes);
+          shoe[first]++;
+          shoe[second]++;
+        }
+      }
+    }
+  }
+
+  private void resolve(int[] shoe, int remaining, int up, int first, int second,
+      double[] outcomes) {
+    int player = HandStateTable.next(HandStateTable.next(HandStateTable.INITIAL, first), second);
+    int upState = HandStateTable.next(HandStateTable.INITIAL, up);
+    int upValue = BasicStrategyBlackjackHand.upCardValue(Rank.values()[up]);
+    for (int hole = 0; hole < NUM_VALUES; hole++) {
+      if (shoe[hole] > 0) {
+        double probability = (double) shoe[hole] / remaining;
+        int dealer = HandStateTable.next(upState, hole);
+        shoe[hole]--;
+        if (HandStateTable.isBlackjack(player) && HandStateTable.isBlackjack(dealer)) {
+          outcomes[PUSH] += probability;
+        } else if (HandStateTable.isBlackjack(player)) {
+          outcomes[WIN] += probability;
+          outcomes[BLACKJACK] += probability;
+        } else if (HandStateTable.isBlackjack(dealer)) {
+          outcomes[LOSS] += probability;
+        } else {
+          playPlayer(shoe, remaining - 1, player, upValue, dealer, probability, outcomes);
+        }
+        shoe[hole]++;
+      }
+    }
+  }
+
+  private void playPlayer(int[] shoe, int remaining, int player, int upValue, int dealer,
+      double probability, double[] outcomes) {
+    int total = HandStateTable.getTotal(player);
+    if (total < 21
+        && BasicStrategyBlackjackHand.shouldHit(total, HandStateTable.isSoft(player), upValue)) {
+      for (int v = 0; v < NUM_VALUES; v++) {
+        if (shoe[v] > 0) {
+          double next = probability * shoe[v] / remaining;
+          shoe[v]--;
+          playPlayer(shoe, remaining - 1, HandStateTable.next(player, v), upValue, dealer, next,
+              outcomes);
+          shoe[v]++;
+        }
+      }
+    } else if (HandStateTable.isBusted(player)) {
+      outcomes[LOSS] += probability;
+    } else {
+      playDealer(shoe, remaining, dealer, total, probability, outcomes);
+    }
+  }
+
+  private void playDealer(int[] shoe, int remaining, int dealer, int playerTotal,
+      double probability, double[] outcomes) {
+    if (HandStateTable.dealerHits(dealer, hitOnSoft17)) {
+      for (int v = 0; v < NUM_VALUES; v++) {
+        if (shoe[v] > 0) {
+          double next = probability * shoe[v] / remaining;
+          shoe[v]--;
+          playDealer(shoe, remaining - 1, HandStateTable.next(dealer, v), playerTotal, next,
+              outcomes);
+          shoe[v]++;
+        }
+      }
+    } else {
+      int dealerValue = HandStateTable.getValue(dealer);
+      if (playerTotal > dealerValue) {
+        outcomes[WIN] += probability;
+      } else if (playerTotal == dealerValue) {
+        outcomes[PUSH] += probability;
+      } else {
+        outcomes[LOSS] += probability;
+      }
+    }
+  }
+
+  /**
+   * Runs the enumeration from the command line, printing the resulting table.
+   * The arguments are the number of decks (default 1), and a flag indicating
+   * whether the dealer hits on soft 17 (default <code>true</code>).
+   *
+   * @param args  command-line arguments.
+   */
+  public static void main(String... args) {
+    int decks = (args.length > 0) ? Integer.parseInt(args[0]) : 1;
+    boolean hitOnSoft17 = args.length <= 1 || Boolean.parseBoolean(args[1]);
+    new StartingHandEnumerator(decks, hitOnSoft17).enumerate().print(System.out);
+  }
+
+  private class UpCardTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int up;
+    private final Table table;
+
+    private UpCardTask(int up, Table table) {
+      this.up = up;
+      this.table = table;
+    }
+
+    @Override
+    protected void compute() {
+      enumerate(up, table);
+    }
+
+  }
+
+  /**
+   * Exact outcome probabilities and combinatorial weights, indexed by dealer
+   * up-card value index and player starting pair index (see {@link
+   * #valueIndex(Rank)} and {@link #pairIndex(int, int)}).
+   */
+  public static class Table {
+
+    private final long[][] weights = new long[NUM_VALUES][NUM_PAIRS];
+    private final double[][][] outcomes = new double[NUM_VALUES][NUM_PAIRS][NUM_OUTCOMES];
+
+    private Table() {
+    }
+
+    /**
+     * Returns the number of distinct ways (counting individual cards in the
+     * shoe as distinct) in which the specified up-card and starting pair can
+     * be dealt.
+     *
+     * @param up    dealer up-card value index.
+     * @param pair  player starting pair index.
+     * @return      number of ways to deal the combination.
+     */
+    public long getWeight(int up, int pair) {
+      return weights[up][pair];
+    }
+
+    /**
+     * Returns the probability of the specified outcome, given the specified
+     * up-card and starting pair.
+     *
+     * @param up        dealer up-card value index.
+     * @param pair      player starting pair index.
+     * @param outcome   one of {@link #WIN}, {@link #PUSH}, {@link #LOSS}, or
+     *                  {@link #BLACKJACK}.
+     * @return          conditional probability of the outcome.
+     */
+    public double getProbability(int up, int pair, int outcome) {
+      return outcomes[up][pair][outcome];
+    }
+
+    /**
+     * Returns the player's expected net result per unit bet, given the
+     * specified up-card and starting pair, where a blackjack pays 3:2.
+     *
+     * @param up    dealer up-card value index.
+     * @param pair  player starting pair index.
+     * @return      expected net result per unit bet.
+     */
+    public double getExpectation(int up, int pair) {
+      double[] probabilities = outcomes[up][pair];
+      return probabilities[WIN] + probabilities[BLACKJACK] / 2 - probabilities[LOSS];
+    }
+
+    /**
+     * Prints this table, one line per up-card and starting pair, with the
+     * weight, win, push, loss, and blackjack probabilities, and expectation.
+     *
+     * @param out   destination of the table.
+     */
+    public void print(PrintStream out) {
+      for (int up = 0; up < NUM_VALUES; up++) {
+        for (int second = 0; second < NUM_VALUES; second++) {
+          for (int first = 0; first <= second; first++) {
+            int pair = pairIndex(first, second);
+            double[] probabilities = outcomes[up][pair];
+            out.printf("%s%s v %s %d %.6f %.6f %.6f %.6f %+.6f%n",
+                VALUE_SYMBOLS[first], VALUE_SYMBOLS[second], VALUE_SYMBOLS[up],
+                weights[up][pair], probabilities[WIN], probabilities[PUSH],
+                probabilities[LOSS], probabilities[BLACKJACK], getExpectation(up, pair));
+          }
+        }
+      }
+    }
+
+  }
+
+}
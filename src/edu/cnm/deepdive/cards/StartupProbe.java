@@ -0,0 +1,120 @@
+package edu.cnm.deepdive.cards;
+
+import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Measures the startup latency of the game and the simulator, as the time
+ * from launch of the JVM to the first deal of a round. In <code>game</code>
+ * mode, {@link ConsoleGame#main(String...)} itself is run, with {@link
+ * System#in} replaced by a script that bets 1, stands, and leaves the table;
+ * the first deal is taken to be complete when the game asks for input after
+ * the bet, by which time the dealer's top card and the player's hand have
+ * been displayed. In <code>sim</code> mode, the first round of a {@link
+ * BlackjackSimulation} is played. Either way, the elapsed time is printed,
+ * and the specified number of additional simulation rounds is then played, so
+ * that a run also serves as a representative workload for class loading.
+ * <p>Since many short-lived simulation JVMs are launched (e.g. by {@link
+ * SimulationCoordinator}), startup time can be reduced considerably with an
+ * application class-data sharing (AppCDS) archive, which holds the parsed and
+ * verified classes loaded by a training run. To create the archive, and then
+ * launch with it (comparing the time reported with and without it):</p>
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=cards.jsa -cp &lt;classpath&gt; \
+ *     edu.cnm.deepdive.cards.StartupProbe sim 10000
+ * java -XX:SharedArchiveFile=cards.jsa -cp &lt;classpath&gt; \
+ *     edu.cnm.deepdive.cards.StartupProbe sim
+ * </pre>
+ * <p>The same archive can then be used for {@link BlackjackSimulation}, {@link
+ * SimulationWorker}, and {@link ConsoleGame}, as long as the classpath is
+ * unchanged; a training run in <code>game</code> mode adds the classes used
+ * for console output.</p>
+ *
+ * @author Nicholas Bennett &amp; Deep Dive Coding Java Cohort 4
+ */
+public class StartupProbe {
+
+  private StartupProbe() {
+  }
+
+  /**
+   * Runs the probe from the command line. The arguments are the mode
+   * (<code>game</code> or <code>sim</code>, default <code>sim</code>) and the
+   * number of rounds to play after the first (default 0).
+   *
+   * @param args                          command-line arguments.
+   * @throws InsufficientCardsException   if a deck runs out of cards (should
+   *                                      never occur).
+   */
+  public static void main(String... args) throws InsufficientCardsException {
+    boolean game = args.length > 0 && args[0].equals("game");
+    long rounds = (args.length > 1) ? Long.parseLong(args[1]) : 0;
+    long firstDeal;
+    if (game) {
+      ScriptedInput script = new ScriptedInput();
+      System.setIn(script);
+      ConsoleGame.main();
+      firstDeal = script.firstDeal;
+    } else {
+      new BlackjackSimulation(0).playRound();
+      firstDeal = System.currentTimeMillis();
+    }
+    // The management API is only loaded after the measurement, to avoid inflating it.
+    long start = ManagementFactory.getRuntimeMXBean().getStartTime();
+    System.out.printf("Time to first deal: %d ms%n", firstDeal - start);
+    if (rounds > 0) {
+      BlackjackSimulation simulation = new BlackjackSimulation(1);
+      for (long i = 0; i < rounds; i++) {
+        simulation.playRound();
+      }
+      System.out.println(simulation.getTally());
+    }
+  }
+
+  /*
+  Supplies one line of the script per read, so that the scanner in ConsoleGame
+  reads again only when it needs more input. The blank line after the bet
+  absorbs any read-ahead while the scanner finishes the bet line, so the first
+  "n" is read only when the game waits for the player. Any "n" not needed to
+  stand or decline is rejected as a bet, and skipped; the final "0" ends the
+  game. ("n" is the no answer in every bundle.)
+  */
+  private static class ScriptedInput extends InputStream {
+
+    private static final String[] LINES = {"1", "", "n", "n", "n", "0"};
+    private static final int FIRST_ANSWER = 2;
+
+    private int line;
+    private byte[] current = new byte[0];
+    private int position;
+    private long firstDeal;
+
+    @Override
+    public int read() {
+      byte[] buffer = new byte[1];
+      return (read(buffer, 0, 1) < 0) ? -1 : buffer[0];
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+      if (position == current.length) {
+        if (line == LINES.length) {
+          return -1;
+        }
+        if (line == FIRST_ANSWER) {
+          firstDeal = System.currentTimeMillis();
+        }
+        current = String.format("%s%n", LINES[line++]).getBytes(StandardCharsets.UTF_8);
+        position = 0;
+      }
+      int count = Math.min(length, current.length - position);
+      System.arraycopy(current, position, buffer, offset, count);
+      position += count;
+      return count;
+    }
+
+  }
+
+}
@@ -0,0 +1,116 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class BankrollSimulatorTest {
+
+  private static final long SEED = 42;
+  private static final int TRAJECTORIES = 10_000;
+  private static final int ROUNDS = 500;
+  private static final int INITIAL_BANKROLL = 100;
+
+  @Test
+  void simulate() {
+    RoundOutcomeDistribution distribution =
+        RoundOutcomeDistribution.collect(new BlackjackSimulation(SEED), 100_000);
+    BankrollSimulator simulator = new BankrollSimulator(distribution);
+    BankrollSimulator.Report flat =
+        simulator.simulate(new BettingStrategy.Flat(1), TRAJECTORIES, ROUNDS, INITIAL_BANKROLL,
+            SEED);
+    BankrollSimulator.Report martingale =
+        simulator.simulate(new BettingStrategy.Martingale(1, 64), TRAJECTORIES, ROUNDS,
+            INITIAL_BANKROLL, SEED);
+    assertAll(
+        "Flat vs. Martingale",
+        () -> assertTrue(flat.getRiskOfRuin() < martingale.getRiskOfRuin()),
+        () -> assertTrue(flat.getMaxDrawdownPercentile(99) < martingale.getMaxDrawdownPercentile(99))
+    );
+    BankrollSimulator.Report repeated =
+        simulator.simulate(new BettingStrategy.Flat(1), TRAJECTORIES, ROUNDS, INITIAL_BANKROLL,
+            SEED);
+    assertAll(
+        "Repeatability",
+        () -> assertEquals(flat.getRiskOfRuin(), repeated.getRiskOfRuin(), 0),
+        () -> assertEquals(flat.getMedianFinalBankroll(), repeated.getMedianFinalBankroll())
+    );
+  }
+
+  @Test
+  void blackjackPayout() {
+    RoundOutcomeDistribution distribution = new RoundOutcomeDistribution();
+    distribution.record(0, 3);
+    BankrollSimulator.Report report = new BankrollSimulator(distribution)
+        .simulate(new BettingStrategy.Flat(1), 1, 1, INITIAL_BANKROLL, SEED);
+    assertEquals(INITIAL_BANKROLL + 1.5, report.getMedianFinalBankroll(), 0);
+  }
+
+  @Test
+  void losses() {
+    RoundOutcomeDistribution distribution = new RoundOutcomeDistribution();
+    distribution.record(0, -2);
+    BankrollSimulator simulator = new BankrollSimulator(distribution);
+    BankrollSimulator.Report flat =
+        simulator.simulate(new BettingStrategy.Flat(1), 2, 10, INITIAL_BANKROLL, SEED);
+    // 1 + 2 + ... + 32 = 63 is lost, and the remaining 37 is less than the next bet.
+    BankrollSimulator.Report martingale =
+        simulator.simulate(new BettingStrategy.Martingale(1, 64), 2, 10, INITIAL_BANKROLL, SEED);
+    assertAll(
+        () -> assertEquals(INITIAL_BANKROLL - 10, flat.getMedianFinalBankroll(), 0),
+        () -> assertEquals(10, flat.getMaxDrawdownPercentile(100), 0),
+        () -> assertEquals(0, flat.getRiskOfRuin(), 0),
+        () -> assertEquals(0, martingale.getMedianFinalBankroll(), 0),
+        () -> assertEquals(INITIAL_BANKROLL, martingale.getMaxDrawdownPercentile(100), 0),
+        () -> assertEquals(1, martingale.getRiskOfRuin(), 0)
+    );
+  }
+
+  @Test
+  void empty() {
+    BankrollSimulator simulator = new BankrollSimulator(new RoundOutcomeDistribution());
+    assertThrows(IllegalStateException.class,
+        () -> simulator.simulate(new BettingStrategy.Flat(1), 1, 1, INITIAL_BANKROLL, SEED));
+  }
+
+  @Test
+  void kelly() {
+    RoundOutcomeDistribution distribution = new RoundOutcomeDistribution();
+    // Edge of +0.5 at a true count of 2, and -1 at -3.
+    distribution.record(2, 2);
+    distribution.record(2, 2);
+    distribution.record(2, 2);
+    distribution.record(2, -2);
+    distribution.record(-3, -2);
+    BettingStrategy strategy = new BettingStrategy.Kelly(0.5, 1, 50, distribution);
+    assertAll(
+        () -> assertEquals(19, strategy.bet(100, 0, 0, 2)),
+        () -> assertEquals(50, strategy.bet(1000, 0, 0, 2)),
+        () -> assertEquals(1, strategy.bet(100, 0, 0, 0)),
+        () -> assertEquals(1, strategy.bet(100, 0, 0, -3)),
+        () -> assertEquals(1, strategy.bet(100, 0, 0, 10))
+    );
+  }
+
+  @Test
+  void kellyTrajectory() {
+    RoundOutcomeDistribution distribution = new RoundOutcomeDistribution();
+    distribution.record(2, 2);
+    // With an edge of 1, half-Kelly bets 100 * 0.5 / 1.3 = 38, then 138 * 0.5 / 1.3 = 53.
+    BankrollSimulator.Report report = new BankrollSimulator(distribution)
+        .simulate(new BettingStrategy.Kelly(0.5, 1, 1000, distribution), 1, 2,
+            INITIAL_BANKROLL, SEED);
+    assertEquals(INITIAL_BANKROLL + 38 + 53, report.getMedianFinalBankroll(), 0);
+  }
+
+  @Test
+  void countSpread() {
+    BettingStrategy strategy = new BettingStrategy.CountSpread(1, 1, 2, 4, 8);
+    assertAll(
+        () -> assertEquals(1, strategy.bet(100, 0, 0, -3)),
+        () -> assertEquals(2, strategy.bet(100, 0, 0, 2)),
+        () -> assertEquals(8, strategy.bet(100, 0, 0, 10))
+    );
+  }
+
+}
@@ -100,4 +100,41 @@ class BlackjackDealerHandTest {
     );
   }
 
-}
\ No newline at end of file
+  @Test
+  void snapshot() throws InsufficientCardsException {
+    Deck deck = new Deck(TEST_CARDS);
+    BlackjackHand hand = new BlackjackDealerHand(deck);
+    long deckSnapshot = deck.snapshot();
+    int handSnapshot = hand.snapshot();
+    hand.play();
+    assertTrue(hand.isBusted());
+    hand.restore(handSnapshot);
+    deck.restore(deckSnapshot);
+    assertAll(
+        () -> assertEquals(17, hand.getTotal()),
+        () -> assertTrue(hand.isSoft()),
+        () -> assertEquals(2, hand.getHand().length),
+        () -> assertEquals(4, deck.getUndealtCount())
+    );
+    assertThrows(IllegalArgumentException.class, () -> hand.restore(3));
+  }
+
+  @Test
+  void fork() throws InsufficientCardsException {
+    Deck deck = new Deck(TEST_CARDS);
+    BlackjackHand hand = new BlackjackDealerHand(deck);
+    Deck forkedDeck = deck.fork();
+    BlackjackHand fork = hand.fork(forkedDeck);
+    fork.play();
+    assertAll(
+        () -> assertEquals(24, fork.getTotal()),
+        () -> assertEquals(2, forkedDeck.getUndealtCount()),
+        () -> assertEquals(17, hand.getTotal()),
+        () -> assertEquals(2, hand.getHand().length),
+        () -> assertEquals(4, deck.getUndealtCount())
+    );
+    hand.play();
+    assertArrayEquals(fork.getHand(), hand.getHand());
+  }
+
+}
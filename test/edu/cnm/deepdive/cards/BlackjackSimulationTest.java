@@ -0,0 +1,47 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BlackjackSimulationTest {
+
+  private static final long SEED = 20181019L;
+  private static final long TOTAL_ROUNDS = 5000;
+  private static final long INTERRUPTED_ROUNDS = 1234;
+
+  @Test
+  void random() {
+    Random expected = new Random(SEED);
+    CheckpointableRandom actual = new CheckpointableRandom(SEED);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(expected.nextInt(52), actual.nextInt(52));
+    }
+    long state = actual.getState();
+    int next = actual.nextInt();
+    actual.setState(state);
+    assertEquals(next, actual.nextInt());
+  }
+
+  @Test
+  void resume() throws IOException {
+    BlackjackSimulation uninterrupted = new BlackjackSimulation(SEED);
+    uninterrupted.run(TOTAL_ROUNDS, null, BlackjackSimulation.DEFAULT_CHECKPOINT_INTERVAL);
+    Path checkpoint = Files.createTempFile("simulation", ".ckpt");
+    try {
+      BlackjackSimulation interrupted = new BlackjackSimulation(SEED);
+      interrupted.run(INTERRUPTED_ROUNDS, checkpoint, Long.MAX_VALUE);
+      BlackjackSimulation resumed = BlackjackSimulation.resume(checkpoint);
+      assertEquals(interrupted.getTally(), resumed.getTally());
+      resumed.run(TOTAL_ROUNDS, checkpoint, BlackjackSimulation.DEFAULT_CHECKPOINT_INTERVAL);
+      assertEquals(uninterrupted.getTally(), resumed.getTally());
+    } finally {
+      Files.deleteIfExists(checkpoint);
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.cnm.deepdive.cards.Deck.InsufficientCardsException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ContinuousShufflingDeckTest {
+
+  @Test
+  void dealAndGather() throws InsufficientCardsException {
+    Deck deck = new ContinuousShufflingDeck(2, new Random(0));
+    int[] counts = new int[Card.NUM_CODES];
+    for (Card card : deck.deal(2 * Card.NUM_CODES)) {
+      counts[card.getCode()]++;
+    }
+    for (int count : counts) {
+      assertEquals(2, count);
+    }
+    assertEquals(0, deck.getUndealtCount());
+    assertThrows(InsufficientCardsException.class, deck::deal);
+    deck.gather();
+    assertEquals(2 * Card.NUM_CODES, deck.getUndealtCount());
+    assertEquals(0, deck.getDealt().length);
+  }
+
+  @Test
+  void uniform() throws InsufficientCardsException {
+    Deck deck = new ContinuousShufflingDeck(new Random(1));
+    int trials = 1000;
+    int[] counts = new int[Card.NUM_CODES];
+    for (int i = 0; i < Card.NUM_CODES * trials; i++) {
+      deck.deal(5);
+      counts[deck.deal().getCode()]++;
+      deck.gather();
+    }
+    for (int count : counts) {
+      assertTrue(Math.abs(count - trials) < 150);
+    }
+  }
+
+  @Test
+  void snapshot() throws InsufficientCardsException {
+    Deck deck = new ContinuousShufflingDeck(new Random(2));
+    Card first = deck.deal();
+    long snapshot = deck.snapshot();
+    deck.deal(3);
+    deck.restore(snapshot);
+    assertEquals(Card.NUM_CODES - 1, deck.getUndealtCount());
+    assertArrayEquals(new Card[]{first}, deck.getDealt());
+    assertThrows(IllegalStateException.class, () -> deck.fork().restore(snapshot));
+    deck.gather();
+    assertThrows(IllegalStateException.class, () -> deck.restore(snapshot));
+  }
+
+  @Test
+  void fork() throws InsufficientCardsException {
+    Deck deck = new ContinuousShufflingDeck(new Random(4));
+    Deck control = new ContinuousShufflingDeck(new Random(4));
+    deck.deal(5);
+    control.deal(5);
+    Deck fork = deck.fork();
+    assertArrayEquals(deck.getUndealt(), fork.getUndealt());
+    fork.deal(10);
+    deck.fork();
+    assertArrayEquals(control.deal(20), deck.deal(20));
+    assertEquals(Card.NUM_CODES - 15, fork.getUndealtCount());
+  }
+
+  @Test
+  void play() throws InsufficientCardsException {
+    Deck deck = new ContinuousShufflingDeck(6, new Random(3));
+    for (int round = 0; round < 1000; round++) {
+      BlackjackHand dealer = new BlackjackDealerHand(deck);
+      dealer.play();
+      assertTrue(dealer.getTotal() >= 17);
+      assertEquals(6 * Card.NUM_CODES - dealer.getHand().length, deck.getUndealtCount());
+      deck.gather();
+    }
+    assertThrows(UnsupportedOperationException.class, deck::sort);
+  }
+
+}
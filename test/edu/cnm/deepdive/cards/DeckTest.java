@@ -47,17 +47,49 @@ class DeckTest {
     assertEquals(unshuffledSet, shuffledSet);
   }
 
-}
-
-
-
-
-
-
-
-
-
-
+  @Test
+  void snapshot() throws Deck.InsufficientCardsException {
+    Deck deck = new Deck();
+    deck.shuffle(new Random(0));
+    deck.deal(5);
+    long snapshot = deck.snapshot();
+    Card[] undealt = deck.getUndealt();
+    Card[] dealt = deck.getDealt();
+    Card[] first = deck.deal(10);
+    deck.restore(snapshot);
+    assertArrayEquals(undealt, deck.getUndealt());
+    assertArrayEquals(dealt, deck.getDealt());
+    assertArrayEquals(first, deck.deal(10));
+    deck.restore(snapshot);
+    deck.gather();
+    assertThrows(IllegalStateException.class, () -> deck.restore(snapshot));
+  }
 
+  @Test
+  void foreignSnapshot() throws Deck.InsufficientCardsException {
+    Deck deck = new Deck();
+    Deck other = new Deck();
+    Deck fork = deck.fork();
+    deck.deal(1);
+    other.deal(5);
+    fork.deal(5);
+    long snapshot = deck.snapshot();
+    assertThrows(IllegalStateException.class, () -> other.restore(snapshot));
+    assertThrows(IllegalStateException.class, () -> fork.restore(snapshot));
+    assertThrows(IllegalStateException.class, () -> deck.fork().restore(snapshot));
+    assertEquals(Card.NUM_CODES - 5, other.getUndealtCount());
+  }
 
+  @Test
+  void fork() throws Deck.InsufficientCardsException {
+    Deck deck = new Deck();
+    deck.shuffle(new Random(0));
+    deck.deal(5);
+    Deck fork = deck.fork();
+    assertArrayEquals(deck.getDealt(), fork.getDealt());
+    assertArrayEquals(fork.deal(10), deck.deal(10));
+    fork.deal(5);
+    assertEquals(deck.getUndealtCount() - 5, fork.getUndealtCount());
+  }
 
+}
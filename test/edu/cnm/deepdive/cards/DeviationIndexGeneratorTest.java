@@ -0,0 +1,56 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class DeviationIndexGeneratorTest {
+
+  private static final int ROUNDS = 1_000_000;
+
+  @Test
+  void generate() throws IOException {
+    DeviationTable table = new DeviationIndexGenerator(true, 15).generate(ROUNDS, 0);
+    for (int up = 2; up <= 11; up++) {
+      for (int total = 4; total <= 11; total++) {
+        assertEquals(DeviationTable.ALWAYS_HIT, table.getIndex(total, false, up));
+      }
+      assertEquals(DeviationTable.ALWAYS_STAND, table.getIndex(20, false, up));
+    }
+    int index = table.getIndex(16, false, 10);
+    assertTrue(index >= -3 && index <= 4);
+    assertTrue(table.shouldHit(16, false, 10, index - 1));
+    assertFalse(table.shouldHit(16, false, 10, index));
+    assertArrayEquals(bytes(table),
+        bytes(new DeviationIndexGenerator(true, 15).generate(ROUNDS, 0)));
+  }
+
+  @Test
+  void basicStrategy() throws IOException {
+    DeviationTable table = DeviationTable.basicStrategy();
+    for (int total = 12; total <= 20; total++) {
+      for (int up = 2; up <= 11; up++) {
+        for (boolean soft : new boolean[]{false, true}) {
+          assertEquals(BasicStrategyBlackjackHand.shouldHit(total, soft, up),
+              table.shouldHit(total, soft, up, 0));
+        }
+      }
+    }
+    byte[] bytes = bytes(table);
+    DeviationTable copy = DeviationTable.read(
+        new DataInputStream(new ByteArrayInputStream(bytes)));
+    assertArrayEquals(bytes, bytes(copy));
+  }
+
+  private static byte[] bytes(DeviationTable table) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    table.write(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+}
@@ -0,0 +1,94 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.cnm.deepdive.cards.GameEvent.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Flow;
+import org.junit.jupiter.api.Test;
+
+class GameEventPublisherTest {
+
+  @Test
+  void deckEvents() throws Exception {
+    Recorder recorder = new Recorder(Long.MAX_VALUE);
+    Deck deck = new Deck();
+    try (GameEventPublisher events = new GameEventPublisher(Runnable::run, 16)) {
+      events.subscribe(recorder);
+      deck.setEventPublisher(events);
+      deck.shuffle(new Random(0));
+      Card[] cards = deck.deal(2);
+      Deck fork = deck.fork();
+      assertNull(fork.getEventPublisher());
+      fork.deal();
+      assertEquals(List.of(Type.SHUFFLE, Type.DEAL, Type.DEAL), recorder.types);
+      assertEquals(List.of(cards[0], cards[1]), recorder.cards.subList(1, 3));
+      assertFalse(recorder.completed);
+    }
+    assertTrue(recorder.completed);
+  }
+
+  @Test
+  void backpressure() {
+    Recorder recorder = new Recorder(0);
+    try (GameEventPublisher events = new GameEventPublisher(Runnable::run, 4)) {
+      events.subscribe(recorder);
+      for (int i = 0; i < 10; i++) {
+        events.publish(Type.PAYOUT, null, i);
+      }
+      assertTrue(recorder.sequences.isEmpty());
+      assertEquals(6, events.getDropped());
+      recorder.subscription.request(2);
+      assertEquals(List.of(0L, 1L), recorder.sequences);
+      recorder.subscription.request(Long.MAX_VALUE);
+      events.publish(Type.STAND, null, 0);
+      assertEquals(List.of(0L, 1L, 2L, 3L, 10L), recorder.sequences);
+      recorder.subscription.cancel();
+      assertEquals(0, events.getSubscriberCount());
+    }
+    assertFalse(recorder.completed);
+  }
+
+  private static class Recorder implements Flow.Subscriber<GameEvent> {
+
+    private final long initialRequest;
+    private final List<Long> sequences = new ArrayList<>();
+    private final List<Type> types = new ArrayList<>();
+    private final List<Card> cards = new ArrayList<>();
+    private Flow.Subscription subscription;
+    private boolean completed;
+
+    private Recorder(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (initialRequest > 0) {
+        subscription.request(initialRequest);
+      }
+    }
+
+    @Override
+    public void onNext(GameEvent event) {
+      sequences.add(event.getSequence());
+      types.add(event.getType());
+      cards.add(event.getCard());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+
+  }
+
+}
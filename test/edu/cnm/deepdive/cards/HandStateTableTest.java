@@ -0,0 +1,53 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class HandStateTableTest {
+
+  private static final int MAX_CARDS = 5;
+
+  @Test
+  void next() {
+    assertTrue(HandStateTable.getNumStates() < 100);
+    walk(HandStateTable.INITIAL, new Rank[MAX_CARDS], 0);
+  }
+
+  @Test
+  void dealerHits() {
+    int soft17 = HandStateTable.next(HandStateTable.next(HandStateTable.INITIAL, Rank.ACE),
+        Rank.SIX);
+    int hard17 = HandStateTable.next(HandStateTable.next(HandStateTable.INITIAL, Rank.TEN),
+        Rank.SEVEN);
+    assertAll(
+        () -> assertTrue(HandStateTable.dealerHits(soft17, true)),
+        () -> assertFalse(HandStateTable.dealerHits(soft17, false)),
+        () -> assertFalse(HandStateTable.dealerHits(hard17, true)),
+        () -> assertFalse(HandStateTable.dealerHits(hard17, false))
+    );
+  }
+
+  private void walk(int state, Rank[] ranks, int numCards) {
+    int hard = 0;
+    boolean ace = false;
+    for (int i = 0; i < numCards; i++) {
+      hard += Math.min(ranks[i].ordinal() + 1, 10);
+      ace |= ranks[i] == Rank.ACE;
+    }
+    boolean soft = ace && hard <= 11;
+    int total = soft ? hard + 10 : hard;
+    assertEquals(total, HandStateTable.getTotal(state));
+    assertEquals(soft, HandStateTable.isSoft(state));
+    assertEquals(total > 21, HandStateTable.isBusted(state));
+    assertEquals(total > 21 ? 0 : total, HandStateTable.getValue(state));
+    assertEquals(numCards == 2 && total == 21, HandStateTable.isBlackjack(state));
+    if (numCards < MAX_CARDS && total <= 21) {
+      for (Rank rank : Rank.values()) {
+        ranks[numCards] = rank;
+        walk(HandStateTable.next(state, rank), ranks, numCards + 1);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class OffHeapBufferTest {
+
+  private static final long SEED = 99;
+  private static final int ROUNDS = 1000;
+
+  @Test
+  void allocate() throws IOException {
+    try (OffHeapBuffer buffer = OffHeapBuffer.allocate(3)) {
+      buffer.append((byte) 1);
+      buffer.append((byte) -2);
+      buffer.append((byte) 3);
+      assertThrows(BufferOverflowException.class, () -> buffer.append((byte) 4));
+      assertAll(
+          () -> assertEquals(3, buffer.size()),
+          () -> assertEquals(1, buffer.get(0)),
+          () -> assertEquals(-2, buffer.get(1)),
+          () -> assertEquals(3, buffer.get(2))
+      );
+    }
+  }
+
+  @Test
+  void closed() throws IOException {
+    OffHeapBuffer buffer = OffHeapBuffer.allocate(3);
+    buffer.append((byte) 1);
+    buffer.close();
+    buffer.close();
+    assertAll(
+        () -> assertThrows(IllegalStateException.class, () -> buffer.append((byte) 2)),
+        () -> assertThrows(IllegalStateException.class, () -> buffer.put(0, (byte) 2)),
+        () -> assertThrows(IllegalStateException.class, () -> buffer.get(0)),
+        () -> assertThrows(IllegalStateException.class,
+            () -> buffer.get(0, new byte[1], 0, 1)),
+        () -> assertThrows(IllegalStateException.class, buffer::force),
+        () -> assertEquals(1, buffer.size())
+    );
+  }
+
+  @Test
+  void map() throws IOException {
+    Path file = Files.createTempFile("outcomes", ".bin");
+    try {
+      BlackjackSimulation simulation = new BlackjackSimulation(SEED);
+      try (
+          OffHeapBuffer outcomes = OffHeapBuffer.map(file, ROUNDS);
+          OffHeapBuffer shoes = OffHeapBuffer.allocate(ROUNDS * Card.NUM_CODES)
+      ) {
+        simulation.recordOutcomes(outcomes);
+        simulation.recordShoes(shoes);
+        simulation.run(ROUNDS, null, BlackjackSimulation.DEFAULT_CHECKPOINT_INTERVAL);
+        assertEquals(ROUNDS, outcomes.size());
+        assertEquals(0, shoes.size() % Card.NUM_CODES);
+      }
+      try (OffHeapBuffer outcomes = OffHeapBuffer.open(file)) {
+        SimulationTally tally = simulation.getTally();
+        long wins = 0;
+        long losses = 0;
+        for (long i = 0; i < outcomes.size(); i++) {
+          byte result = outcomes.get(i);
+          if (result > 0) {
+            wins++;
+          } else if (result < 0) {
+            losses++;
+          }
+        }
+        assertEquals(tally.getWins(), wins);
+        assertEquals(tally.getLosses(), losses);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+}
@@ -0,0 +1,150 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class OutputSinkTest {
+
+  @Test
+  void buffered() {
+    CountingStream stream = new CountingStream();
+    OutputSink out = new OutputSink.Buffered(new OutputSink.Stream(stream, StandardCharsets.UTF_8));
+    out.printf("%d ", 1);
+    out.print("2 ");
+    out.println(3);
+    assertEquals(0, stream.size());
+    out.flush();
+    assertEquals("1 2 3" + System.lineSeparator(), stream.toString(StandardCharsets.UTF_8));
+    assertEquals(1, stream.writes);
+  }
+
+  @Test
+  void async() {
+    CountingStream stream = new CountingStream();
+    StringBuilder expected = new StringBuilder();
+    try (OutputSink out = new OutputSink.Async(
+        new OutputSink.Stream(stream, StandardCharsets.UTF_8), 4)) {
+      for (int i = 0; i < 1000; i++) {
+        out.printf("%d,", i);
+        expected.append(i).append(',');
+      }
+    }
+    assertEquals(expected.toString(), stream.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void closedAsync() {
+    OutputSink out = new OutputSink.Async(new OutputSink.Stream(new CountingStream()), 1);
+    out.close();
+    assertThrows(IllegalStateException.class, () -> out.print("x"));
+  }
+
+  @Test
+  void concurrentClose() throws InterruptedException {
+    CountingStream stream = new CountingStream();
+    OutputSink out = new OutputSink.Async(new OutputSink.Stream(stream, StandardCharsets.UTF_8), 2);
+    int[] printed = new int[4];
+    Thread[] printers = new Thread[printed.length];
+    for (int i = 0; i < printers.length; i++) {
+      int printer = i;
+      printers[i] = new Thread(() -> {
+        try {
+          while (true) {
+            out.print("x");
+            printed[printer]++;
+          }
+        } catch (IllegalStateException e) {
+          // Sink closed.
+        }
+      });
+      printers[i].start();
+    }
+    Thread.sleep(50);
+    out.close();
+    int total = 0;
+    for (int i = 0; i < printers.length; i++) {
+      printers[i].join();
+      total += printed[i];
+    }
+    assertTrue(total > 0);
+    assertEquals(total, stream.size());
+  }
+
+  @Test
+  void closeWhilePrinting() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountingStream stream = new CountingStream();
+    OutputSink out = new OutputSink.Async(
+        new OutputSink.Stream(stream, StandardCharsets.UTF_8) {
+          @Override
+          public void print(String text) {
+            started.countDown();
+            try {
+              release.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            super.print(text);
+          }
+        }, 1);
+    out.print("a");
+    started.await();
+    out.print("b");
+    // Waits for room in the queue, which is full until the release.
+    Thread printer = new Thread(() -> out.print("c"));
+    Thread closer = new Thread(out::close);
+    printer.start();
+    Thread.sleep(50);
+    closer.start();
+    Thread.sleep(50);
+    long start = System.nanoTime();
+    assertThrows(IllegalStateException.class, () -> out.print("d"));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    release.countDown();
+    printer.join();
+    closer.join();
+    assertEquals("abc", stream.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void failedAsync() throws InterruptedException {
+    int capacity = 16;
+    OutputSink out = new OutputSink.Async(new OutputSink.Stream(new CountingStream()) {
+      @Override
+      public void print(String text) {
+        throw new UncheckedIOException(new IOException());
+      }
+    }, capacity);
+    out.print("x");
+    // Fails long before the queue could fill.
+    IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+      for (int i = 0; i < capacity - 1; i++) {
+        Thread.sleep(10);
+        out.print("y");
+      }
+    });
+    assertTrue(e.getCause() instanceof UncheckedIOException);
+    out.close();
+  }
+
+  private static class CountingStream extends ByteArrayOutputStream {
+
+    private int writes;
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+      writes++;
+      super.write(bytes, offset, length);
+    }
+
+  }
+
+}
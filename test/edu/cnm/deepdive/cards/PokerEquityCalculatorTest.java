@@ -0,0 +1,59 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class PokerEquityCalculatorTest {
+
+  private static final Card[][] ACES_KINGS = {
+      {new Card(Rank.ACE, Suit.SPADES), new Card(Rank.ACE, Suit.HEARTS)},
+      {new Card(Rank.KING, Suit.CLUBS), new Card(Rank.KING, Suit.DIAMONDS)},
+  };
+
+  @Test
+  void sample() {
+    double[] equities = new PokerEquityCalculator(ACES_KINGS).sample(200_000, 0);
+    assertEquals(0.82, equities[0], 0.01);
+    assertEquals(1, equities[0] + equities[1], 1e-9);
+  }
+
+  @Test
+  void sampleNoTrials() {
+    PokerEquityCalculator calculator = new PokerEquityCalculator(ACES_KINGS);
+    assertThrows(IllegalArgumentException.class, () -> calculator.sample(0, 0));
+    assertThrows(IllegalArgumentException.class, () -> calculator.sample(-1, 0));
+  }
+
+  @Test
+  void enumerate() {
+    Card[] flop = {
+        new Card(Rank.KING, Suit.HEARTS),
+        new Card(Rank.SEVEN, Suit.CLUBS),
+        new Card(Rank.TWO, Suit.DIAMONDS),
+    };
+    PokerEquityCalculator calculator = new PokerEquityCalculator(ACES_KINGS, flop);
+    double[] exact = calculator.enumerate();
+    double[] sampled = calculator.sample(100_000, 1);
+    assertEquals(1, exact[0] + exact[1], 1e-9);
+    // Aces need one of the 2 remaining aces in 2 cards, from 45.
+    assertEquals(1 - (double) (43 * 42 / 2) / (45 * 44 / 2), exact[0], 0.01);
+    assertEquals(exact[0], sampled[0], 0.01);
+  }
+
+  @Test
+  void river() {
+    Card[] board = {
+        new Card(Rank.QUEEN, Suit.HEARTS),
+        new Card(Rank.JACK, Suit.HEARTS),
+        new Card(Rank.TEN, Suit.HEARTS),
+        new Card(Rank.NINE, Suit.HEARTS),
+        new Card(Rank.EIGHT, Suit.HEARTS),
+    };
+    assertArrayEquals(new double[]{0.5, 0.5},
+        new PokerEquityCalculator(ACES_KINGS, board).enumerate(), 1e-9);
+    assertThrows(IllegalArgumentException.class,
+        () -> new PokerEquityCalculator(ACES_KINGS, ACES_KINGS[0][0]));
+  }
+
+}
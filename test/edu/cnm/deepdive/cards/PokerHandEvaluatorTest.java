@@ -0,0 +1,129 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.cnm.deepdive.cards.PokerHandEvaluator.Category;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PokerHandEvaluatorTest {
+
+  private static final long[] CATEGORY_COUNTS = {
+      40, 624, 3744, 5108, 10200, 54912, 123552, 1098240, 1302540
+  };
+
+  @Test
+  void evaluate5() {
+    int[] cards = new int[Card.NUM_CODES];
+    for (int code = 0; code < cards.length; code++) {
+      cards[code] = PokerHandEvaluator.encode(Card.fromCode(code));
+    }
+    long[] counts = new long[Category.values().length];
+    boolean[] seen = new boolean[PokerHandEvaluator.WORST_VALUE + 1];
+    for (int a = 0; a < cards.length; a++) {
+      for (int b = a + 1; b < cards.length; b++) {
+        for (int c = b + 1; c < cards.length; c++) {
+          for (int d = c + 1; d < cards.length; d++) {
+            for (int e = d + 1; e < cards.length; e++) {
+              int value = PokerHandEvaluator.evaluate(cards[a], cards[b], cards[c], cards[d],
+                  cards[e]);
+              counts[PokerHandEvaluator.category(value).ordinal()]++;
+              seen[value] = true;
+            }
+          }
+        }
+      }
+    }
+    assertArrayEquals(CATEGORY_COUNTS, counts);
+    for (int value = 1; value <= PokerHandEvaluator.WORST_VALUE; value++) {
+      assertTrue(seen[value]);
+    }
+  }
+
+  @Test
+  void evaluate7() {
+    int royalFlush = PokerHandEvaluator.evaluate(PokerHandEvaluator.encode(
+        card(Rank.TWO, Suit.CLUBS), card(Rank.ACE, Suit.SPADES), card(Rank.KING, Suit.SPADES),
+        card(Rank.QUEEN, Suit.SPADES), card(Rank.JACK, Suit.SPADES), card(Rank.TEN, Suit.SPADES),
+        card(Rank.TWO, Suit.HEARTS)));
+    int wheel = PokerHandEvaluator.evaluate(PokerHandEvaluator.encode(
+        card(Rank.ACE, Suit.CLUBS), card(Rank.TWO, Suit.SPADES), card(Rank.THREE, Suit.HEARTS),
+        card(Rank.FOUR, Suit.SPADES), card(Rank.FIVE, Suit.DIAMONDS),
+        card(Rank.KING, Suit.SPADES)));
+    int sixHigh = PokerHandEvaluator.evaluate(PokerHandEvaluator.encode(
+        card(Rank.SIX, Suit.CLUBS), card(Rank.TWO, Suit.SPADES), card(Rank.THREE, Suit.HEARTS),
+        card(Rank.FOUR, Suit.SPADES), card(Rank.FIVE, Suit.DIAMONDS)));
+    int worst = PokerHandEvaluator.evaluate(PokerHandEvaluator.encode(
+        card(Rank.SEVEN, Suit.CLUBS), card(Rank.FIVE, Suit.SPADES), card(Rank.FOUR, Suit.HEARTS),
+        card(Rank.THREE, Suit.SPADES), card(Rank.TWO, Suit.DIAMONDS)));
+    assertAll(
+        () -> assertEquals(1, royalFlush),
+        () -> assertEquals(Category.STRAIGHT, PokerHandEvaluator.category(wheel)),
+        () -> assertTrue(sixHigh < wheel),
+        () -> assertEquals(PokerHandEvaluator.WORST_VALUE, worst),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> PokerHandEvaluator.evaluate(new int[4]))
+    );
+  }
+
+  @Test
+  void evaluate7MatchesSubsets() {
+    Random rng = new Random(7);
+    int[] deck = new int[Card.NUM_CODES];
+    for (int code = 0; code < deck.length; code++) {
+      deck[code] = PokerHandEvaluator.encode(Card.fromCode(code));
+    }
+    for (int trial = 0; trial < 100_000; trial++) {
+      int[] hand = new int[6 + trial % 2];
+      for (int i = 0; i < hand.length; i++) {
+        int j = i + rng.nextInt(deck.length - i);
+        int swap = deck[i];
+        deck[i] = deck[j];
+        deck[j] = swap;
+        hand[i] = deck[i];
+      }
+      assertEquals(bestOfSubsets(hand), PokerHandEvaluator.evaluate(hand));
+    }
+  }
+
+  @Test
+  void invalid() {
+    int ace1 = PokerHandEvaluator.encode(Card.fromCode(0));
+    int ace2 = PokerHandEvaluator.encode(Card.fromCode(13));
+    int king = PokerHandEvaluator.encode(card(Rank.KING, Suit.CLUBS));
+    assertAll(
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> PokerHandEvaluator.evaluate(ace1, ace1, ace2, ace2, ace2)),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> PokerHandEvaluator.evaluate(ace1, ace1, ace1, ace1, ace1)),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> PokerHandEvaluator.evaluate(ace1, ace1, ace2, ace2, ace2, king, king)),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> PokerHandEvaluator.evaluate(ace1, ace1, ace1, ace1, ace1, ace1, king)),
+        () -> assertThrows(IllegalArgumentException.class,
+            () -> PokerHandEvaluator.evaluate(new int[7]))
+    );
+  }
+
+  private static int bestOfSubsets(int[] hand) {
+    int best = PokerHandEvaluator.WORST_VALUE;
+    for (int mask = 0; mask < 1 << hand.length; mask++) {
+      if (Integer.bitCount(mask) == 5) {
+        int[] subset = new int[5];
+        for (int i = 0, j = 0; i < hand.length; i++) {
+          if ((mask & (1 << i)) != 0) {
+            subset[j++] = hand[i];
+          }
+        }
+        best = Math.min(best, PokerHandEvaluator.evaluate(subset[0], subset[1], subset[2],
+            subset[3], subset[4]));
+      }
+    }
+    return best;
+  }
+
+  private static Card card(Rank rank, Suit suit) {
+    return new Card(rank, suit);
+  }
+
+}
@@ -0,0 +1,98 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.cnm.deepdive.cards.RoundOutcomeStore.Aggregate;
+import edu.cnm.deepdive.cards.RoundOutcomeStore.Column;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class RoundOutcomeStoreTest {
+
+  private static final int ROUNDS = 3 * RoundOutcomeStore.BLOCK_SIZE + 1000;
+
+  @Test
+  void simulation() throws IOException {
+    Path directory = Files.createTempDirectory("rounds");
+    try {
+      BlackjackSimulation simulation = new BlackjackSimulation(7);
+      try (RoundOutcomeStore store = RoundOutcomeStore.create(directory, ROUNDS)) {
+        simulation.recordRounds(store, 1);
+        simulation.run(ROUNDS, null, BlackjackSimulation.DEFAULT_CHECKPOINT_INTERVAL);
+      }
+      try (RoundOutcomeStore store = RoundOutcomeStore.open(directory)) {
+        SimulationTally tally = simulation.getTally();
+        Aggregate results = store.query().groupBy(Column.RESULT);
+        assertAll(
+            () -> assertEquals(ROUNDS, store.size()),
+            () -> assertEquals(tally.getRounds(), results.getCount()),
+            () -> assertEquals(tally.getLosses(), results.getCount(-2)),
+            () -> assertEquals(tally.getPushes(), results.getCount(0)),
+            () -> assertEquals(tally.getBlackjacks(), results.getCount(3)),
+            () -> assertEquals(tally.getWins() - tally.getBlackjacks(), results.getCount(2)),
+            () -> assertEquals(0, store.query().where(Column.RULE_SET, 2, 2)
+                .groupBy(Column.RESULT).getCount())
+        );
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  @Test
+  void query() throws IOException {
+    Path directory = Files.createTempDirectory("rounds");
+    Random rng = new Random(3);
+    byte[][] rows = new byte[ROUNDS][5];
+    try {
+      try (RoundOutcomeStore store = RoundOutcomeStore.create(directory, ROUNDS)) {
+        for (byte[] row : rows) {
+          row[0] = (byte) (2 + rng.nextInt(10));
+          row[1] = (byte) (4 + rng.nextInt(18));
+          row[2] = (byte) (rng.nextInt(21) - 10);
+          row[3] = (byte) (store.size() / RoundOutcomeStore.BLOCK_SIZE);
+          row[4] = (byte) (2 * rng.nextInt(3) - 2);
+          store.append(row[0], row[1], row[2], row[3], row[4]);
+        }
+        assertThrows(BufferOverflowException.class, () -> store.append(2, 4, 0, 0, 0));
+      }
+      try (RoundOutcomeStore store = RoundOutcomeStore.open(directory)) {
+        Aggregate aggregate = store.query()
+            .where(Column.UP_CARD, 10, 11)
+            .where(Column.RULE_SET, 1, 2)
+            .where(Column.TRUE_COUNT, -3, 100)
+            .where(Column.TRUE_COUNT, -100, 5)
+            .groupBy(Column.PLAYER_TOTAL);
+        long[] counts = new long[22];
+        long[] totals = new long[22];
+        for (byte[] row : rows) {
+          if (row[0] >= 10 && row[3] >= 1 && row[3] <= 2 && row[2] >= -3 && row[2] <= 5) {
+            counts[row[1]]++;
+            totals[row[1]] += row[4];
+          }
+        }
+        for (int total = 4; total < 22; total++) {
+          assertEquals(counts[total], aggregate.getCount(total));
+          assertEquals(totals[total], aggregate.getTotal(total));
+        }
+      }
+    } finally {
+      delete(directory);
+    }
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,29 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ShoeProducerTest {
+
+  private static final int DEPTH = 3;
+  private static final int ROUNDS = 20;
+
+  @Test
+  void take() throws InterruptedException {
+    try (ShoeProducer shoes = new ShoeProducer(DEPTH, 2, Random::new)) {
+      for (int i = 0; i < ROUNDS; i++) {
+        Deck deck = shoes.take();
+        assertTrue(deck.isShuffled());
+        assertEquals(Suit.values().length * Rank.values().length, deck.getUndealtCount());
+        assertDoesNotThrow(() -> deck.deal(10));
+        shoes.recycle(deck);
+      }
+      assertEquals(ROUNDS, shoes.getConsumed());
+      assertTrue(shoes.getProduced() >= ROUNDS);
+      assertTrue(shoes.getDepth() <= DEPTH);
+    }
+  }
+
+}
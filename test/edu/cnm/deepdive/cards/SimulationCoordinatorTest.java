@@ -0,0 +1,53 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import org.junit.jupiter.api.Test;
+
+class SimulationCoordinatorTest {
+
+  private static final long BASE_SEED = 7;
+  private static final int TASKS = 6;
+  private static final long ROUNDS_PER_TASK = 500;
+  private static final int LOCAL_WORKERS = 2;
+
+  private static final int TASK_TIMEOUT = 1000;
+
+  @Test
+  void run() throws IOException, InterruptedException {
+    SimulationTally expected = expected();
+    try (SimulationCoordinator coordinator = new SimulationCoordinator(LOCAL_WORKERS)) {
+      SimulationTally actual = coordinator.run(BASE_SEED, TASKS, ROUNDS_PER_TASK);
+      assertEquals(TASKS * ROUNDS_PER_TASK, actual.getRounds());
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  void hungWorker() throws IOException, InterruptedException {
+    SimulationTally expected = expected();
+    try (
+        SimulationCoordinator coordinator = new SimulationCoordinator(1);
+        // Connects before the local worker starts, takes a task, and never answers.
+        Socket hung = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort());
+    ) {
+      coordinator.setTaskTimeout(TASK_TIMEOUT);
+      assertEquals(expected, coordinator.run(BASE_SEED, TASKS, ROUNDS_PER_TASK));
+      assertTrue(hung.isConnected());
+    }
+  }
+
+  private static SimulationTally expected() throws IOException {
+    SimulationTally expected = new SimulationTally();
+    for (int i = 0; i < TASKS; i++) {
+      BlackjackSimulation simulation = new BlackjackSimulation(BASE_SEED + i);
+      simulation.run(ROUNDS_PER_TASK, null, BlackjackSimulation.DEFAULT_CHECKPOINT_INTERVAL);
+      expected.merge(simulation.getTally());
+    }
+    return expected;
+  }
+
+}
@@ -0,0 +1,41 @@
+package edu.cnm.deepdive.cards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class StartingHandEnumeratorTest {
+
+  private static final int DECKS = 1;
+  private static final int NUM_CARDS = 52 * DECKS;
+  private static final double TOLERANCE = 1e-9;
+
+  @Test
+  void enumerate() {
+    StartingHandEnumerator.Table table = new StartingHandEnumerator(DECKS, true).enumerate();
+    long totalWeight = 0;
+    for (int up = 0; up < StartingHandEnumerator.NUM_VALUES; up++) {
+      for (int pair = 0; pair < StartingHandEnumerator.NUM_PAIRS; pair++) {
+        totalWeight += table.getWeight(up, pair);
+        if (table.getWeight(up, pair) > 0) {
+          double sum = table.getProbability(up, pair, StartingHandEnumerator.WIN)
+              + table.getProbability(up, pair, StartingHandEnumerator.PUSH)
+              + table.getProbability(up, pair, StartingHandEnumerator.LOSS);
+          assertEquals(1, sum, TOLERANCE);
+        }
+      }
+    }
+    assertEquals((long) NUM_CARDS * (NUM_CARDS - 1) * (NUM_CARDS - 2) / 2, totalWeight);
+    int ace = StartingHandEnumerator.valueIndex(Rank.ACE);
+    int ten = StartingHandEnumerator.valueIndex(Rank.KING);
+    int six = StartingHandEnumerator.valueIndex(Rank.SIX);
+    int blackjack = StartingHandEnumerator.pairIndex(ace, ten);
+    assertAll(
+        "Blackjack vs. 6",
+        () -> assertEquals(1, table.getProbability(six, blackjack, StartingHandEnumerator.BLACKJACK),
+            TOLERANCE),
+        () -> assertEquals(1.5, table.getExpectation(six, blackjack), TOLERANCE)
+    );
+  }
+
+}